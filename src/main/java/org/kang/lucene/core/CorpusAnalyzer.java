@@ -0,0 +1,347 @@
+package org.kang.lucene.core;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ko.AnalysisMetrics;
+import org.apache.lucene.analysis.ko.KoreanAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.Version;
+
+/**
+ * Runs {@link KoreanAnalyzer} over a UTF-8 corpus, one line at a time, on
+ * several threads, and reports the throughput, the time of each analysis
+ * stage, the memory and the slowest lines.
+ * <p>
+ * The lines are read in batches, and the batches are written in the order of
+ * the input: either the terms of each line separated by spaces, or the
+ * records of {@link PreAnalyzedWriter} separated by empty lines.
+ */
+public final class CorpusAnalyzer {
+
+	private static final String USAGE = "java org.kang.lucene.core.CorpusAnalyzer"
+			+ " -input FILE [-output FILE] [-format tokens|preanalyzed]"
+			+ " [-threads N] [-batch LINES] [-slowest N] [-exact] [-fast]\n\n"
+			+ "This analyzes each line of FILE with KoreanAnalyzer and reports"
+			+ " tokens/sec, the time of each stage and the memory used.";
+
+	private final Analyzer analyzer;
+	private final boolean preAnalyzed;
+	private final int slowest;
+
+	private final List<Line> slowLines = new ArrayList<Line>();
+	private long lines;
+	private long chars;
+	private long tokens;
+
+	public CorpusAnalyzer(Analyzer analyzer, boolean preAnalyzed, int slowest) {
+		assert analyzer != null;
+		assert slowest >= 0;
+
+		this.analyzer = analyzer;
+		this.preAnalyzed = preAnalyzed;
+		this.slowest = slowest;
+	}
+
+	/**
+	 * analyzes the lines of the input, and writes the batches to the output
+	 * (if it is not null) in the order they were read.
+	 */
+	public void run(BufferedReader input, Writer output, int threads,
+			int batchSize) throws Exception {
+		assert threads > 0;
+		assert batchSize > 0;
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		// bounds the number of batches in memory
+		Deque<Future<Batch>> pending = new ArrayDeque<Future<Batch>>();
+		try {
+			long lineNumber = 1;
+			List<String> batch = new ArrayList<String>(batchSize);
+			String line;
+			while ((line = input.readLine()) != null) {
+				batch.add(line);
+				if (batch.size() == batchSize) {
+					if (pending.size() == threads * 2) {
+						write(pending.removeFirst().get(), output);
+					}
+					pending.addLast(executor.submit(new Analysis(lineNumber, batch)));
+					lineNumber += batch.size();
+					batch = new ArrayList<String>(batchSize);
+				}
+			}
+			if (batch.size() > 0) {
+				pending.addLast(executor.submit(new Analysis(lineNumber, batch)));
+			}
+			while (!pending.isEmpty()) {
+				write(pending.removeFirst().get(), output);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void write(Batch batch, Writer output) throws IOException {
+		if (output != null) {
+			output.append(batch.output);
+		}
+		lines += batch.lines;
+		chars += batch.chars;
+		tokens += batch.tokens;
+
+		slowLines.addAll(batch.slowLines);
+		Collections.sort(slowLines);
+		if (slowLines.size() > slowest) {
+			slowLines.subList(slowest, slowLines.size()).clear();
+		}
+	}
+
+	public long getLines() {
+		return lines;
+	}
+
+	public long getChars() {
+		return chars;
+	}
+
+	public long getTokens() {
+		return tokens;
+	}
+
+	/**
+	 * the slowest lines, slowest first.
+	 */
+	public List<Line> getSlowLines() {
+		return Collections.unmodifiableList(slowLines);
+	}
+
+	/**
+	 * a line of the input and the time to analyze it.
+	 */
+	public static final class Line implements Comparable<Line> {
+		public final long number;
+		public final int length;
+		public final long nanos;
+
+		Line(long number, int length, long nanos) {
+			this.number = number;
+			this.length = length;
+			this.nanos = nanos;
+		}
+
+		@Override
+		public int compareTo(Line other) {
+			if (nanos != other.nanos) {
+				return nanos > other.nanos ? -1 : 1;
+			}
+			return number < other.number ? -1 : (number == other.number ? 0 : 1);
+		}
+	}
+
+	private static final class Batch {
+		final StringBuilder output = new StringBuilder();
+		final List<Line> slowLines = new ArrayList<Line>();
+		int lines;
+		long chars;
+		long tokens;
+	}
+
+	private final class Analysis implements Callable<Batch> {
+		private final long firstLine;
+		private final List<String> lines;
+
+		Analysis(long firstLine, List<String> lines) {
+			this.firstLine = firstLine;
+			this.lines = lines;
+		}
+
+		@Override
+		public Batch call() throws Exception {
+			Batch batch = new Batch();
+			for (int i = 0; i < lines.size(); i++) {
+				String line = lines.get(i);
+				long start = System.nanoTime();
+				TokenStream ts = analyzer.tokenStream("body", new StringReader(line));
+				if (preAnalyzed) {
+					int length = batch.output.length();
+					batch.output.append(PreAnalyzedWriter.write(ts));
+					// one line per token after the header
+					for (int j = length; j < batch.output.length(); j++) {
+						if (batch.output.charAt(j) == '\n') {
+							batch.tokens++;
+						}
+					}
+					batch.tokens--;
+				} else {
+					batch.tokens += appendTerms(ts, batch.output);
+				}
+				batch.output.append('\n');
+				long nanos = System.nanoTime() - start;
+
+				batch.lines++;
+				batch.chars += line.length();
+				if (slowest > 0) {
+					batch.slowLines.add(new Line(firstLine + i, line.length(), nanos));
+				}
+			}
+			Collections.sort(batch.slowLines);
+			if (batch.slowLines.size() > slowest) {
+				batch.slowLines.subList(slowest, batch.slowLines.size()).clear();
+			}
+			return batch;
+		}
+	}
+
+	private static int appendTerms(TokenStream ts, StringBuilder sb) throws IOException {
+		CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+		int count = 0;
+		try {
+			ts.reset();
+			while (ts.incrementToken()) {
+				if (count++ > 0) {
+					sb.append(' ');
+				}
+				sb.append(termAtt);
+			}
+			ts.end();
+		} finally {
+			ts.close();
+		}
+		return count;
+	}
+
+	public static void main(String[] args) throws Exception {
+		String inputPath = null;
+		String outputPath = null;
+		boolean preAnalyzed = false;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int batchSize = 1000;
+		int slowest = 5;
+		boolean exactMatch = false;
+		boolean fastPath = false;
+		for (int i = 0; i < args.length; i++) {
+			if ("-input".equals(args[i])) {
+				inputPath = args[++i];
+			} else if ("-output".equals(args[i])) {
+				outputPath = args[++i];
+			} else if ("-format".equals(args[i])) {
+				preAnalyzed = "preanalyzed".equals(args[++i]);
+			} else if ("-threads".equals(args[i])) {
+				threads = Integer.parseInt(args[++i]);
+			} else if ("-batch".equals(args[i])) {
+				batchSize = Integer.parseInt(args[++i]);
+			} else if ("-slowest".equals(args[i])) {
+				slowest = Integer.parseInt(args[++i]);
+			} else if ("-exact".equals(args[i])) {
+				exactMatch = true;
+			} else if ("-fast".equals(args[i])) {
+				fastPath = true;
+			}
+		}
+
+		if (inputPath == null || threads < 1 || batchSize < 1 || slowest < 0) {
+			System.err.println("Usage: " + USAGE);
+			System.exit(1);
+		}
+
+		KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+		analyzer.setExactMatch(exactMatch);
+		analyzer.setFastPath(fastPath);
+		AnalysisMetrics metrics = AnalysisMetrics.get();
+		metrics.setEnabled(true);
+		metrics.reset();
+
+		BufferedReader input = new BufferedReader(new InputStreamReader(
+				new FileInputStream(new File(inputPath)), IOUtils.CHARSET_UTF_8));
+		Writer output = null;
+		long start = System.nanoTime();
+		try {
+			if (outputPath != null) {
+				output = new BufferedWriter(new OutputStreamWriter(
+						new FileOutputStream(new File(outputPath)), IOUtils.CHARSET_UTF_8));
+			}
+			CorpusAnalyzer corpus = new CorpusAnalyzer(analyzer, preAnalyzed, slowest);
+			corpus.run(input, output, threads, batchSize);
+			long nanos = System.nanoTime() - start;
+			report(corpus, metrics, threads, nanos);
+		} finally {
+			IOUtils.close(input, output, analyzer);
+		}
+	}
+
+	private static void report(CorpusAnalyzer corpus, AnalysisMetrics metrics,
+			int threads, long nanos) {
+		System.err.println(String.format(Locale.ROOT,
+				"%d lines, %d chars, %d tokens in %.1f s on %d threads",
+				corpus.getLines(), corpus.getChars(), corpus.getTokens(),
+				nanos / 1e9, threads));
+		System.err.println(String.format(Locale.ROOT,
+				"%.0f tokens/s, %.2f Mchars/s",
+				corpus.getTokens() * 1e9 / nanos, corpus.getChars() * 1e3 / nanos));
+
+		// stage times are summed over all the threads
+		System.err.println("stage            calls         ms");
+		Map<String, Long> calls = metrics.getCalls();
+		for (Map.Entry<String, Long> each : metrics.getNanos().entrySet()) {
+			System.err.println(String.format(Locale.ROOT, "%-12s %9d %10.1f",
+					each.getKey(), calls.get(each.getKey()), each.getValue() / 1e6));
+		}
+		System.err.println(String.format(Locale.ROOT,
+				"cache hits %d, misses %d, table hits %d, dictionary lookups %d",
+				metrics.getCacheHits(), metrics.getCacheMisses(),
+				metrics.getTableHits(), metrics.getDictionaryLookups()));
+		long analyses = metrics.getMorphAnalyses();
+		System.err.println(String.format(Locale.ROOT,
+				"morph analyses %d, fast path %d (%.1f%%)", analyses,
+				metrics.getFastPathHits(),
+				analyses == 0 ? 0.0 : metrics.getFastPathHits() * 100.0 / analyses));
+
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		long gcMillis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			gcMillis += Math.max(0, gc.getCollectionTime());
+		}
+		Runtime runtime = Runtime.getRuntime();
+		System.err.println(String.format(Locale.ROOT,
+				"heap: peak %d MB, used %d MB, max %d MB, gc %d ms",
+				peak >> 20, (runtime.totalMemory() - runtime.freeMemory()) >> 20,
+				runtime.maxMemory() >> 20, gcMillis));
+
+		for (Line line : corpus.getSlowLines()) {
+			System.err.println(String.format(Locale.ROOT,
+					"slow line %d: %d chars in %.2f ms", line.number,
+					line.length, line.nanos / 1e6));
+		}
+	}
+}
@@ -1,10 +1,13 @@
 package org.kang.lucene.core;
 
 import java.io.File;
+import java.io.StringReader;
 
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.store.Directory;
@@ -65,6 +68,25 @@ public class Indexer {
 		return this;
 	}
 
+	/**
+	 * adds a field with the tokens written by {@link PreAnalyzedWriter}: they
+	 * are indexed as they are, without running the analyzer.
+	 */
+	public Indexer addPreAnalyzedField(String name, String tokens) {
+		return addField(new TextField(name, new PreAnalyzedTokenizer(
+				new StringReader(tokens))));
+	}
+
+	/**
+	 * adds a field with the tokens written by {@link PreAnalyzedWriter}, and
+	 * stores the original text.
+	 */
+	public Indexer addPreAnalyzedField(String name, String tokens,
+			String storedValue) {
+		addPreAnalyzedField(name, tokens);
+		return addField(new StoredField(name, storedValue));
+	}
+
 	public Indexer addDocument() {
 		assert this.curDoc != null;
 
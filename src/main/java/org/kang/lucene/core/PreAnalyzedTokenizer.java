@@ -0,0 +1,117 @@
+package org.kang.lucene.core;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * Replays the tokens written by {@link PreAnalyzedWriter}: terms, offsets,
+ * position increments and types are returned as they were analyzed.
+ */
+public final class PreAnalyzedTokenizer extends Tokenizer {
+
+	private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+	private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+	private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+	private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+
+	private char[] buffer = new char[1024];
+	private int length;
+	private int pos;
+	private int finalOffset;
+
+	private final StringBuilder field = new StringBuilder();
+
+	public PreAnalyzedTokenizer(Reader input) {
+		super(input);
+	}
+
+	@Override
+	public void reset() throws IOException {
+		super.reset();
+		length = 0;
+		int read;
+		while ((read = input.read(buffer, length, buffer.length - length)) != -1) {
+			length += read;
+			if (length == buffer.length) {
+				buffer = ArrayUtil.grow(buffer, length + 1);
+			}
+		}
+		pos = 0;
+		finalOffset = 0;
+		if (length == 0) {
+			return;
+		}
+
+		nextField(false);
+		if (!PreAnalyzedWriter.VERSION.contentEquals(field)) {
+			throw new IllegalArgumentException("Unknown pre-analyzed version: " + field);
+		}
+		finalOffset = nextInt();
+	}
+
+	@Override
+	public boolean incrementToken() throws IOException {
+		if (pos >= length) {
+			return false;
+		}
+		clearAttributes();
+		posIncAtt.setPositionIncrement(nextInt());
+		int start = nextInt();
+		offsetAtt.setOffset(start, nextInt());
+		nextField(true);
+		typeAtt.setType(field.toString());
+		nextField(true);
+		termAtt.setEmpty().append(field);
+		return true;
+	}
+
+	@Override
+	public void end() throws IOException {
+		super.end();
+		offsetAtt.setOffset(finalOffset, finalOffset);
+	}
+
+	private int nextInt() {
+		int value = 0;
+		while (pos < length) {
+			char c = buffer[pos++];
+			if (c == '\t' || c == '\n') {
+				return value;
+			}
+			if (c < '0' || c > '9') {
+				throw new IllegalArgumentException("Invalid number at " + (pos - 1) + ": " + c);
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * reads the field up to the next tab or newline into {@link #field}.
+	 */
+	private void nextField(boolean unescape) {
+		field.setLength(0);
+		while (pos < length) {
+			char c = buffer[pos++];
+			if (c == '\t' || c == '\n') {
+				break;
+			}
+			if (c == '\\' && unescape && pos < length) {
+				c = buffer[pos++];
+				if (c == 't') {
+					c = '\t';
+				} else if (c == 'n') {
+					c = '\n';
+				}
+			}
+			field.append(c);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package org.kang.lucene.core;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+/**
+ * Serializes the tokens of an analysis, so that the analysis can run ahead of
+ * time or in another process, and {@link PreAnalyzedTokenizer} replays them
+ * at indexing time.
+ * 
+ * <pre>
+ * 1	finalOffset
+ * positionIncrement	startOffset	endOffset	type	term
+ * ...
+ * </pre>
+ * 
+ * One line per token, with tab separated fields. In the type and the term, a
+ * backslash, tab or newline is escaped with a backslash (\\, \t, \n).
+ */
+public final class PreAnalyzedWriter {
+
+	public static final String VERSION = "1";
+
+	private PreAnalyzedWriter() {
+	}
+
+	public static String write(Analyzer analyzer, String fieldName, String text) {
+		try {
+			return write(analyzer.tokenStream(fieldName, new StringReader(text)));
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * consumes (and closes) the token stream.
+	 */
+	public static String write(TokenStream ts) throws IOException {
+		CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+		OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+		PositionIncrementAttribute posIncAtt = ts.addAttribute(PositionIncrementAttribute.class);
+		TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+
+		StringBuilder tokens = new StringBuilder();
+		try {
+			ts.reset();
+			while (ts.incrementToken()) {
+				tokens.append(posIncAtt.getPositionIncrement()).append('\t');
+				tokens.append(offsetAtt.startOffset()).append('\t');
+				tokens.append(offsetAtt.endOffset()).append('\t');
+				escape(typeAtt.type(), tokens).append('\t');
+				escape(termAtt, tokens).append('\n');
+			}
+			ts.end();
+		} finally {
+			ts.close();
+		}
+
+		StringBuilder sb = new StringBuilder(tokens.length() + 16);
+		sb.append(VERSION).append('\t').append(offsetAtt.endOffset()).append('\n');
+		return sb.append(tokens).toString();
+	}
+
+	private static StringBuilder escape(CharSequence text, StringBuilder sb) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			switch (c) {
+			case '\\':
+				sb.append("\\\\");
+				break;
+			case '\t':
+				sb.append("\\t");
+				break;
+			case '\n':
+				sb.append("\\n");
+				break;
+			default:
+				sb.append(c);
+			}
+		}
+		return sb;
+	}
+}
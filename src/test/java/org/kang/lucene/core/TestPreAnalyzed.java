@@ -0,0 +1,123 @@
+package org.kang.lucene.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Test;
+
+public class TestPreAnalyzed {
+
+	private static final String TEXT = "Lucene in Action, 공항철도 2nd edition";
+
+	@Test
+	public void testReplay() throws Exception {
+		Analyzer a = new StandardAnalyzer(Version.LUCENE_47);
+		String tokens = PreAnalyzedWriter.write(a, "body", TEXT);
+
+		List<String> expected = replay(a.tokenStream("body", new StringReader(TEXT)));
+		List<String> actual = replay(new PreAnalyzedTokenizer(new StringReader(tokens)));
+		assertEquals(expected, actual);
+
+		// stop words leave a gap in the positions
+		assertEquals("lucene/0-6/1/<ALPHANUM>", actual.get(0));
+		assertEquals("action/10-16/2/<ALPHANUM>", actual.get(1));
+		assertEquals("end/" + TEXT.length(), actual.get(actual.size() - 1));
+
+		a.close();
+	}
+
+	@Test
+	public void testEscape() throws Exception {
+		String tokens = "1\t9\n1\t0\t4\ta\\tb\tx\\\\y\n0\t5\t9\tc\tz\\nw\n";
+		List<String> actual = replay(new PreAnalyzedTokenizer(new StringReader(tokens)));
+		assertEquals("x\\y/0-4/1/a\tb", actual.get(0));
+		assertEquals("z\nw/5-9/0/c", actual.get(1));
+		assertEquals("end/9", actual.get(2));
+	}
+
+	@Test
+	public void testEmpty() throws Exception {
+		Tokenizer t = new PreAnalyzedTokenizer(new StringReader(""));
+		t.reset();
+		assertFalse(t.incrementToken());
+		t.end();
+		t.close();
+
+		String tokens = PreAnalyzedWriter.write(new StandardAnalyzer(Version.LUCENE_47), "body", "");
+		assertEquals(PreAnalyzedWriter.VERSION + "\t0\n", tokens);
+	}
+
+	@Test
+	public void testIndexer() throws Exception {
+		Analyzer a = new StandardAnalyzer(Version.LUCENE_47);
+		Indexer indexer = CoreFactory.newDefaultIndexer();
+		indexer.deleteAll();
+		indexer.prepareDocument()
+				.addPreAnalyzedField("body", PreAnalyzedWriter.write(a, "body", TEXT), TEXT)
+				.addDocument();
+		indexer.close();
+
+		String path = CoreFactory.getConfig("default", "path", String.class);
+		IndexReader reader = DirectoryReader.open(FSDirectory.open(new File(path)));
+		try {
+			IndexSearcher searcher = new IndexSearcher(reader);
+			TopDocs hits = searcher.search(new TermQuery(new Term("body", "공항철도")), 10);
+			assertEquals(1, hits.totalHits);
+			Document doc = searcher.doc(hits.scoreDocs[0].doc);
+			assertEquals(TEXT, doc.get("body"));
+
+			PhraseQuery query = new PhraseQuery();
+			query.add(new Term("body", "lucene"), 0);
+			query.add(new Term("body", "action"), 2);
+			assertEquals(1, searcher.search(query, 10).totalHits);
+		} finally {
+			reader.close();
+		}
+		a.close();
+	}
+
+	private static List<String> replay(TokenStream ts) throws IOException {
+		CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+		OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+		PositionIncrementAttribute posIncAtt = ts.addAttribute(PositionIncrementAttribute.class);
+		TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+
+		List<String> tokens = new ArrayList<String>();
+		ts.reset();
+		while (ts.incrementToken()) {
+			tokens.add(termAtt + "/" + offsetAtt.startOffset() + "-"
+					+ offsetAtt.endOffset() + "/"
+					+ posIncAtt.getPositionIncrement() + "/" + typeAtt.type());
+		}
+		ts.end();
+		tokens.add("end/" + offsetAtt.endOffset());
+		ts.close();
+		assertTrue(tokens.size() > 0);
+		return tokens;
+	}
+}
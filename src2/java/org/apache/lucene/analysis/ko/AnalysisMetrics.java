@@ -0,0 +1,268 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
+import org.apache.lucene.analysis.ko.morph.MorphAnalyzer;
+import org.apache.lucene.analysis.ko.morph.WordSpaceAnalyzer;
+
+/**
+ * Opt-in metrics of the korean analysis: calls and time of each {@link Stage},
+ * tokens read and returned, cache and {@link EojeolTable} hits, dictionary lookups,
+ * and the words analyzed by {@link MorphAnalyzer} and resolved by its fast path.
+ * <p>
+ * Metrics are off by default: turn them on with {@link #setEnabled(boolean)},
+ * and read them with {@link #get()} or over JMX after {@link #register()}.
+ * Each {@link KoreanFilter} counts locally and adds its counts to the totals
+ * at the end of each stream, so the overhead is a few {@link System#nanoTime()}
+ * calls per token. Counting dictionary lookups, analyzed words, the decompounding 
+ * within {@link MorphAnalyzer} and the words that exceed the spacing budget is the 
+ * exception: it increments a shared counter for every lookup, word and noun.
+ */
+public final class AnalysisMetrics implements AnalysisMetricsMXBean {
+  
+  /** Stages of {@link KoreanFilter} */
+  public enum Stage {
+    /** morphological analysis of a word */
+    MORPH,
+    /** splitting a word without spaces */
+    WORD_SPACE,
+    /** 
+     * decompounding a noun: the korean nouns, which is also part of {@link #MORPH} or 
+     * {@link #WORD_SPACE}, and the readings of hanja words, which is also part of {@link #CHINESE}
+     */
+    COMPOUND_NOUN,
+    /** analysis of a hanja word, including the decompounding of its readings */
+    CHINESE
+  }
+  
+  /** Name of the MBean registered by {@link #register()} */
+  public static final String OBJECT_NAME = "org.apache.lucene.analysis.ko:type=AnalysisMetrics";
+  
+  private static final AnalysisMetrics INSTANCE = new AnalysisMetrics();
+  
+  private static volatile boolean enabled = false;
+  
+  private final AtomicLong calls[] = new AtomicLong[Stage.values().length];
+  private final AtomicLong nanos[] = new AtomicLong[Stage.values().length];
+  private final AtomicLong inputTokens = new AtomicLong();
+  private final AtomicLong outputTokens = new AtomicLong();
+  private final AtomicLong cacheHits = new AtomicLong();
+  private final AtomicLong cacheMisses = new AtomicLong();
+  private final AtomicLong tableHits = new AtomicLong();
+  
+  private AnalysisMetrics() {
+    for (int i = 0; i < calls.length; i++) {
+      calls[i] = new AtomicLong();
+      nanos[i] = new AtomicLong();
+    }
+  }
+  
+  /** returns the metrics */
+  public static AnalysisMetrics get() {
+    return INSTANCE;
+  }
+  
+  /** 
+   * registers the metrics with the platform MBean server as {@link #OBJECT_NAME}.
+   * @return the name of the MBean
+   */
+  public static ObjectName register() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(OBJECT_NAME);
+    if (!server.isRegistered(name)) {
+      server.registerMBean(INSTANCE, name);
+    }
+    return name;
+  }
+  
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    AnalysisMetrics.enabled = enabled;
+    DictionaryUtil.setCountLookups(enabled);
+    MorphAnalyzer.setCountAnalyses(enabled);
+    WordSpaceAnalyzer.setCountBudgetExceeded(enabled);
+  }
+  
+  /** number of calls of the stage */
+  public long getCalls(Stage stage) {
+    long value = calls[stage.ordinal()].get();
+    if (stage == Stage.COMPOUND_NOUN) {
+      value += MorphAnalyzer.getCompoundNounCount();
+    }
+    return value;
+  }
+  
+  /** total time of the stage, in nanoseconds */
+  public long getNanos(Stage stage) {
+    long value = nanos[stage.ordinal()].get();
+    if (stage == Stage.COMPOUND_NOUN) {
+      value += MorphAnalyzer.getCompoundNounNanos();
+    }
+    return value;
+  }
+
+  @Override
+  public Map<String,Long> getCalls() {
+    Map<String,Long> map = new LinkedHashMap<String,Long>();
+    for (Stage stage : Stage.values()) {
+      map.put(stage.name(), getCalls(stage));
+    }
+    return map;
+  }
+
+  @Override
+  public Map<String,Long> getNanos() {
+    Map<String,Long> map = new LinkedHashMap<String,Long>();
+    for (Stage stage : Stage.values()) {
+      map.put(stage.name(), getNanos(stage));
+    }
+    return map;
+  }
+
+  @Override
+  public long getInputTokens() {
+    return inputTokens.get();
+  }
+
+  @Override
+  public long getOutputTokens() {
+    return outputTokens.get();
+  }
+
+  @Override
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  @Override
+  public long getCacheMisses() {
+    return cacheMisses.get();
+  }
+
+  @Override
+  public long getTableHits() {
+    return tableHits.get();
+  }
+
+  @Override
+  public long getDictionaryLookups() {
+    return DictionaryUtil.getLookupCount();
+  }
+
+  @Override
+  public long getMorphAnalyses() {
+    return MorphAnalyzer.getAnalysisCount();
+  }
+
+  @Override
+  public long getFastPathHits() {
+    return MorphAnalyzer.getFastPathCount();
+  }
+
+  @Override
+  public long getSpacingBudgetExceeded() {
+    return WordSpaceAnalyzer.getBudgetExceededCount();
+  }
+
+  @Override
+  public void reset() {
+    for (int i = 0; i < calls.length; i++) {
+      calls[i].set(0);
+      nanos[i].set(0);
+    }
+    inputTokens.set(0);
+    outputTokens.set(0);
+    cacheHits.set(0);
+    cacheMisses.set(0);
+    tableHits.set(0);
+    DictionaryUtil.resetLookupCount();
+    MorphAnalyzer.resetAnalysisCounts();
+    WordSpaceAnalyzer.resetBudgetExceededCount();
+  }
+  
+  /** 
+   * Counts of a single stream: not thread-safe. 
+   * Call {@link #start()} and {@link #stop(Stage, long)} around a stage.
+   */
+  static final class Recorder {
+    private final long calls[] = new long[Stage.values().length];
+    private final long nanos[] = new long[Stage.values().length];
+    long inputTokens, outputTokens, cacheHits, cacheMisses, tableHits;
+    private boolean enabled = false;
+    
+    /** starts recording a stream if metrics are enabled */
+    void reset() {
+      clear();
+      enabled = AnalysisMetrics.enabled;
+    }
+    
+    /** returns the start time of a stage, or 0 if metrics are disabled */
+    long start() {
+      return enabled ? System.nanoTime() : 0;
+    }
+    
+    /** records a stage which started at the given time */
+    void stop(Stage stage, long start) {
+      if (enabled) {
+        calls[stage.ordinal()]++;
+        nanos[stage.ordinal()] += System.nanoTime() - start;
+      }
+    }
+    
+    /** adds the counts to the totals, and clears them */
+    void flush() {
+      if (!enabled) {
+        return;
+      }
+      for (int i = 0; i < calls.length; i++) {
+        if (calls[i] != 0) {
+          INSTANCE.calls[i].addAndGet(calls[i]);
+          INSTANCE.nanos[i].addAndGet(nanos[i]);
+        }
+      }
+      INSTANCE.inputTokens.addAndGet(inputTokens);
+      INSTANCE.outputTokens.addAndGet(outputTokens);
+      INSTANCE.cacheHits.addAndGet(cacheHits);
+      INSTANCE.cacheMisses.addAndGet(cacheMisses);
+      INSTANCE.tableHits.addAndGet(tableHits);
+      clear();
+    }
+    
+    private void clear() {
+      Arrays.fill(calls, 0);
+      Arrays.fill(nanos, 0);
+      inputTokens = outputTokens = cacheHits = cacheMisses = tableHits = 0;
+    }
+  }
+}
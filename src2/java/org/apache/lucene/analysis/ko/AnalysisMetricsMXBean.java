@@ -0,0 +1,68 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link AnalysisMetrics}.
+ */
+public interface AnalysisMetricsMXBean {
+
+  /** true if metrics are being collected */
+  boolean isEnabled();
+
+  /** starts or stops collecting metrics */
+  void setEnabled(boolean enabled);
+
+  /** number of calls of each stage */
+  Map<String,Long> getCalls();
+
+  /** total time of each stage, in nanoseconds */
+  Map<String,Long> getNanos();
+
+  /** number of tokens read by the filter */
+  long getInputTokens();
+
+  /** number of tokens returned by the filter */
+  long getOutputTokens();
+
+  /** number of words found in the analysis cache of a window */
+  long getCacheHits();
+
+  /** number of words analyzed for a window */
+  long getCacheMisses();
+
+  /** number of eojeols returned from an {@link EojeolTable} */
+  long getTableHits();
+
+  /** number of word dictionary lookups */
+  long getDictionaryLookups();
+
+  /** number of words analyzed by the morphological analyzers */
+  long getMorphAnalyses();
+
+  /** number of analyzed words resolved by the dictionary fast path */
+  long getFastPathHits();
+
+  /** number of words whose spacing analysis exceeded its budget */
+  long getSpacingBudgetExceeded();
+
+  /** resets all counters to 0 */
+  void reset();
+}
@@ -0,0 +1,239 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ko.KoreanFilter.Token;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.ByteSequenceOutputs;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.Util;
+
+/**
+ * Precomputed analysis of frequent eojeols (korean tokens): the tokens that
+ * {@link KoreanFilter} returns for each of them, with offsets relative to the eojeol.
+ * <p>
+ * A table is built once over a corpus (see {@link #build(Collection, Map)}) and saved
+ * next to the dictionary, so that a new process returns these eojeols without analyzing
+ * them. The tokens depend on the options of the filter: a table records the
+ * configuration it was built with, and can only be used by a filter with the same one.
+ * Tables are not used in window mode, where a token may also depend on its neighbours.
+ * <p>
+ * File format: a codec header, the configuration (string), and an FST from eojeol to
+ * <pre>
+ *   count(vint) (term(string) offset(vint) increment(vint))<sup>count</sup>
+ * </pre>
+ * A table is immutable and may be shared by all the filters of all threads.
+ */
+public final class EojeolTable {
+  static final String CODEC = "eojeol";
+  static final int VERSION = 1;
+  
+  private final String config;
+  private final FST<BytesRef> fst;
+  
+  // lookups reuse an arc and reader per thread: the table is shared by all threads
+  private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+    @Override
+    protected Scratch initialValue() {
+      return new Scratch(fst.getBytesReader());
+    }
+  };
+  
+  private EojeolTable(String config, FST<BytesRef> fst) {
+    this.config = config;
+    this.fst = fst;
+  }
+  
+  /** the configuration of the filter that built this table */
+  public String getConfig() {
+    return config;
+  }
+  
+  /**
+   * appends the tokens of the eojeol to the list, shifting their offsets by startOffset.
+   * returns false if the eojeol is not in the table.
+   */
+  boolean get(CharSequence eojeol, int startOffset, List<Token> tokens) {
+    final Scratch scratch = this.scratch.get();
+    final FST.Arc<BytesRef> arc = fst.getFirstArc(scratch.arc);
+    BytesRef output = fst.outputs.getNoOutput();
+    try {
+      for (int i = 0; i < eojeol.length(); i++) {
+        if (fst.findTargetArc(eojeol.charAt(i), arc, arc, scratch.fstReader) == null) {
+          return false;
+        }
+        output = fst.outputs.add(output, arc.output);
+      }
+      if (!arc.isFinal()) {
+        return false;
+      }
+      output = fst.outputs.add(output, arc.nextFinalOutput);
+      
+      ByteArrayDataInput in = new ByteArrayDataInput(output.bytes, output.offset, output.length);
+      for (int count = in.readVInt(); count > 0; count--) {
+        String word = in.readString();
+        int offset = in.readVInt();
+        tokens.add(new Token(word, startOffset + offset, in.readVInt()));
+      }
+      return true;
+    } catch (IOException bogus) {
+      throw new RuntimeException(bogus);
+    }
+  }
+  
+  /** reads a table written by {@link #write(OutputStream)} */
+  public static EojeolTable read(InputStream stream) throws IOException {
+    DataInput in = new InputStreamDataInput(new BufferedInputStream(stream));
+    CodecUtil.checkHeader(in, CODEC, VERSION, VERSION);
+    String config = in.readString();
+    return new EojeolTable(config, new FST<BytesRef>(in, ByteSequenceOutputs.getSingleton()));
+  }
+  
+  /** writes the table: the stream is not closed */
+  public void write(OutputStream stream) throws IOException {
+    DataOutput out = new OutputStreamDataOutput(stream);
+    CodecUtil.writeHeader(out, CODEC, VERSION);
+    out.writeString(config);
+    fst.save(out);
+  }
+  
+  /**
+   * Analyzes each eojeol with a {@link KoreanFilter} created by {@link KoreanFilterFactory}
+   * with these arguments, and records the tokens.
+   * @param eojeols  korean tokens to analyze
+   * @param filterArgs  arguments of {@link KoreanFilterFactory}, which must not set a window
+   */
+  public static EojeolTable build(Collection<String> eojeols, Map<String,String> filterArgs) throws IOException {
+    SingleTokenStream single = new SingleTokenStream();
+    KoreanFilter filter = (KoreanFilter) new KoreanFilterFactory(new TreeMap<String,String>(filterArgs)).create(single);
+    if (filter.getWindowSize() > 0) {
+      throw new IllegalArgumentException("Tables cannot be used in window mode: " + filterArgs);
+    }
+    CharTermAttribute termAtt = filter.getAttribute(CharTermAttribute.class);
+    OffsetAttribute offsetAtt = filter.getAttribute(OffsetAttribute.class);
+    PositionIncrementAttribute posIncrAtt = filter.getAttribute(PositionIncrementAttribute.class);
+    
+    // the fst needs its inputs in order
+    TreeMap<String,List<Token>> entries = new TreeMap<String,List<Token>>();
+    for (String eojeol : eojeols) {
+      if (eojeol.length() == 0 || entries.containsKey(eojeol)) {
+        continue;
+      }
+      List<Token> tokens = new ArrayList<Token>();
+      single.setTerm(eojeol);
+      filter.reset();
+      while (filter.incrementToken()) {
+        tokens.add(new Token(termAtt.toString(), offsetAtt.startOffset(), posIncrAtt.getPositionIncrement()));
+      }
+      filter.end();
+      filter.close();
+      entries.put(eojeol, tokens);
+    }
+    
+    ByteSequenceOutputs outputs = ByteSequenceOutputs.getSingleton();
+    Builder<BytesRef> builder = new Builder<BytesRef>(FST.INPUT_TYPE.BYTE2, outputs);
+    IntsRef scratch = new IntsRef();
+    byte buffer[] = new byte[256];
+    ByteArrayDataOutput out = new ByteArrayDataOutput();
+    for (Map.Entry<String,List<Token>> entry : entries.entrySet()) {
+      List<Token> tokens = entry.getValue();
+      int maxLength = 5;
+      for (Token token : tokens) {
+        maxLength += 15 + 3 * token.word.length();
+      }
+      if (buffer.length < maxLength) {
+        buffer = new byte[maxLength];
+      }
+      out.reset(buffer);
+      out.writeVInt(tokens.size());
+      for (Token token : tokens) {
+        out.writeString(token.word);
+        out.writeVInt(token.offset);
+        out.writeVInt(token.increment);
+      }
+      builder.add(Util.toUTF16(entry.getKey(), scratch), BytesRef.deepCopyOf(new BytesRef(buffer, 0, out.getPosition())));
+    }
+    return new EojeolTable(filter.getConfig(), builder.finish());
+  }
+  
+  /** per-thread state of a lookup */
+  private static final class Scratch {
+    final FST.Arc<BytesRef> arc = new FST.Arc<BytesRef>();
+    final FST.BytesReader fstReader;
+    
+    Scratch(FST.BytesReader fstReader) {
+      this.fstReader = fstReader;
+    }
+  }
+  
+  /** returns a single korean token, starting at offset 0 */
+  private static final class SingleTokenStream extends TokenStream {
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+    private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+    private String term;
+    private boolean done;
+    
+    void setTerm(String term) {
+      this.term = term;
+    }
+    
+    @Override
+    public boolean incrementToken() {
+      if (done) {
+        return false;
+      }
+      clearAttributes();
+      termAtt.setEmpty().append(term);
+      offsetAtt.setOffset(0, term.length());
+      typeAtt.setType(KoreanTokenizer.TOKEN_TYPES[KoreanTokenizer.KOREAN]);
+      done = true;
+      return true;
+    }
+    
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      done = false;
+    }
+  }
+}
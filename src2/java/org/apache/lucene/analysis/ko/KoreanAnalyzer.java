@@ -24,6 +24,7 @@ import java.io.Reader;
 import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.core.LowerCaseFilter;
 import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.ko.morph.WordSpaceAnalyzer;
 import org.apache.lucene.analysis.standard.ClassicFilter;
 import org.apache.lucene.analysis.util.CharArraySet;
 import org.apache.lucene.analysis.util.StopwordAnalyzerBase;
@@ -45,6 +46,10 @@ public class KoreanAnalyzer extends StopwordAnalyzerBase {
     
   private boolean exactMatch = false;
   private boolean originCNoun = true;
+  private int windowSize = 0;
+  private boolean queryMode = false;
+  private boolean fastPath = false;
+  private EojeolTable eojeolTable = null;
   
   /** An unmodifiable set containing some common words that are usually not useful for searching. */
   public static final CharArraySet STOP_WORDS_SET; 
@@ -98,7 +103,11 @@ public class KoreanAnalyzer extends StopwordAnalyzerBase {
     src.setMaxTokenLength(maxTokenLength);
     TokenStream tok = new LowerCaseFilter(matchVersion, src);
     tok = new ClassicFilter(tok);
-    tok = new KoreanFilter(tok, bigrammable, hasOrigin, exactMatch, originCNoun);
+    KoreanFilter filter = new KoreanFilter(tok, bigrammable, hasOrigin, exactMatch, originCNoun, windowSize,
+        WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0, fastPath);
+    filter.setQueryMode(queryMode);
+    filter.setEojeolTable(eojeolTable);
+    tok = filter;
     tok = new StopFilter(matchVersion, tok, stopwords);
     return new TokenStreamComponents(src, tok) {
       @Override
@@ -138,4 +147,39 @@ public class KoreanAnalyzer extends StopwordAnalyzerBase {
     exactMatch = exact;
   }
   
+  /**
+   * set the number of tokens that are analyzed together, so that words with a wrong space 
+   * in them can be analyzed. If 0 is set (the default), each token is analyzed by itself.
+   */
+  public void setWindowSize(int size) {
+    windowSize = size;
+  }
+  
+  /**
+   * determine whether the analyzer is used to parse queries. If true is set, only the stem of the 
+   * best analysis of each word is returned, which is fast and matches the terms of the index.
+   * @see KoreanFilter#setQueryMode(boolean)
+   */
+  public void setQueryMode(boolean query) {
+    queryMode = query;
+  }
+  
+  /**
+   * determine whether a word that can only be a two-syllable noun of the dictionary, alone or with
+   * a josa, is returned as that noun without trying the other analyses. The keywords of a few words
+   * that are also a verb are not returned (off by default).
+   * @see KoreanFilter#KoreanFilter(TokenStream, boolean, boolean, boolean, boolean, int, int, long, boolean)
+   */
+  public void setFastPath(boolean fast) {
+    fastPath = fast;
+  }
+  
+  /**
+   * set a table of precomputed eojeols, built with the same options as this analyzer, or null.
+   * @see KoreanFilter#setEojeolTable(EojeolTable)
+   */
+  public void setEojeolTable(EojeolTable table) {
+    eojeolTable = table;
+  }
+  
 }
@@ -24,15 +24,18 @@ import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.analysis.TokenFilter;
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ko.AnalysisMetrics.Stage;
 import org.apache.lucene.analysis.ko.dic.CompoundEntry;
 import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
-import org.apache.lucene.analysis.ko.dic.HanjaMapper;
+import org.apache.lucene.analysis.ko.dic.HanjaReadings;
 import org.apache.lucene.analysis.ko.morph.AnalysisOutput;
 import org.apache.lucene.analysis.ko.morph.CompoundNounAnalyzer;
 import org.apache.lucene.analysis.ko.morph.MorphAnalyzer;
+import org.apache.lucene.analysis.ko.morph.MorphEngine;
 import org.apache.lucene.analysis.ko.morph.PatternConstants;
 import org.apache.lucene.analysis.ko.morph.WordSpaceAnalyzer;
 import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
@@ -44,14 +47,40 @@ public final class KoreanFilter extends TokenFilter {
 
   private final LinkedList<Token> morphQueue = new LinkedList<Token>();
   private final MorphAnalyzer morph;
-  private final WordSpaceAnalyzer wsAnal = new WordSpaceAnalyzer();
+  // only the nouns are extracted, except in query mode (best analysis) and window mode (joined words)
+  private final MorphAnalyzer nounMorph;
+  private final WordSpaceAnalyzer wsAnal;
   private final CompoundNounAnalyzer cnAnalyzer;
+  private HanjaReadings hanjaReadings = null; // created for the first hanja token
   
   private State currentState = null;
   
+  private final AnalysisMetrics.Recorder metrics = new AnalysisMetrics.Recorder();
+  
   private final boolean bigrammable;
   private final boolean hasOrigin;
   private final boolean originCNoun;
+  
+  // window mode: input tokens are read ahead and analyzed together
+  private final int windowSize;
+  private final List<State> window = new ArrayList<State>();
+  private final List<Join> joins = new ArrayList<Join>();
+  private final Map<String,List<AnalysisOutput>> windowCache = new HashMap<String,List<AnalysisOutput>>();
+  private int windowPos = 0;
+  // the last korean token that was read and its end offset, or null: it is joined with the next token,
+  // which may be in the next window
+  private String previous = null;
+  private int previousEnd = -1;
+  // the first token of the next window, read ahead to find the join of the last token of the window
+  private State nextState = null;
+  // the input returned false: it is not read again until reset
+  private boolean inputExhausted = false;
+  
+  private boolean queryMode = false;
+  
+  // precomputed tokens of frequent eojeols, or null
+  private EojeolTable eojeolTable = null;
+  private final String engineConfig;
     
   private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
   private final PositionIncrementAttribute posIncrAtt = addAttribute(PositionIncrementAttribute.class);
@@ -60,6 +89,9 @@ public final class KoreanFilter extends TokenFilter {
     
   private static final String KOREAN_TYPE = KoreanTokenizer.TOKEN_TYPES[KoreanTokenizer.KOREAN];
   private static final String CHINESE_TYPE = KoreanTokenizer.TOKEN_TYPES[KoreanTokenizer.CHINESE];
+  
+  // 한자의 한글 읽기는 5개까지만 색인한다.
+  private static final int MAX_HANJA_READINGS = 5;
     
   public KoreanFilter(TokenStream input) {
     this(input, true);
@@ -83,33 +115,147 @@ public final class KoreanFilter extends TokenFilter {
   }
 
   public KoreanFilter(TokenStream input, boolean bigram, boolean has, boolean exactMatch, boolean cnoun) {
+    this(input, bigram, has, exactMatch, cnoun, 0);
+  }
+
+  /**
+   * 
+   * @param input  input token stream
+   * @param bigram  Whether the bigram index term return or not.
+   * @param has  Whether the original term is returned or not.
+   * @param exactMatch  Whether the original compound noun is returned or not.
+   * @param cnoun  Whether compound nouns are returned or not.
+   * @param window  number of tokens read ahead and analyzed together, or 0 to analyze
+   *                each token by itself. Within a window each distinct word is analyzed
+   *                only once, and two adjacent words that can only be analyzed together
+   *                (a wrong space within a word) also return the keywords of the joined word.
+   */
+  public KoreanFilter(TokenStream input, boolean bigram, boolean has, boolean exactMatch, boolean cnoun, int window) {
+    this(input, bigram, has, exactMatch, cnoun, window, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0);
+  }
+  
+  /**
+   * 
+   * @param input  input token stream
+   * @param bigram  Whether the bigram index term return or not.
+   * @param has  Whether the original term is returned or not.
+   * @param exactMatch  Whether the original compound noun is returned or not.
+   * @param cnoun  Whether compound nouns are returned or not.
+   * @param window  number of tokens read ahead and analyzed together, or 0.
+   * @param maxSpacingSteps  maximum number of steps to split a token without spaces into words.
+   * @param maxSpacingMillis  maximum time to split a token without spaces into words, or 0 for no limit.
+   *                          If either is exceeded, the bigrams of the token are returned instead.
+   * @see WordSpaceAnalyzer#WordSpaceAnalyzer(int, long)
+   */
+  public KoreanFilter(TokenStream input, boolean bigram, boolean has, boolean exactMatch, boolean cnoun, int window, 
+      int maxSpacingSteps, long maxSpacingMillis) {
+    this(input, bigram, has, exactMatch, cnoun, window, maxSpacingSteps, maxSpacingMillis, false);
+  }
+  
+  /**
+   * 
+   * @param input  input token stream
+   * @param bigram  Whether the bigram index term return or not.
+   * @param has  Whether the original term is returned or not.
+   * @param exactMatch  Whether the original compound noun is returned or not.
+   * @param cnoun  Whether compound nouns are returned or not.
+   * @param window  number of tokens read ahead and analyzed together, or 0.
+   * @param maxSpacingSteps  maximum number of steps to split a token without spaces into words.
+   * @param maxSpacingMillis  maximum time to split a token without spaces into words, or 0 for no limit.
+   * @param fastPath  Whether a token that can only be a two-syllable noun of the dictionary, alone or with a 
+   *                  josa, is returned as that noun without trying the other analyses. The query tokens are
+   *                  the same, but some tokens lose the keywords of their verb analyses (for instance 
+   *                  '사랑같' of '사랑같인').
+   * @see MorphAnalyzer#MorphAnalyzer(boolean, boolean, boolean)
+   */
+  public KoreanFilter(TokenStream input, boolean bigram, boolean has, boolean exactMatch, boolean cnoun, int window, 
+      int maxSpacingSteps, long maxSpacingMillis, boolean fastPath) {
     super(input);
     this.bigrammable = bigram;
     this.hasOrigin = has;
     this.originCNoun = cnoun;
-    this.cnAnalyzer = new CompoundNounAnalyzer(exactMatch);
-    this.morph = new MorphAnalyzer(exactMatch);
+    this.windowSize = window;
+    MorphEngine engine = MorphEngine.get(exactMatch, fastPath, maxSpacingSteps, TimeUnit.MILLISECONDS.toNanos(maxSpacingMillis));
+    this.engineConfig = engine.getConfig();
+    this.wsAnal = engine.getWordSpaceAnalyzer();
+    this.cnAnalyzer = engine.getCompoundNounAnalyzer();
+    this.morph = engine.getMorphAnalyzer();
+    this.nounMorph = engine.getNounMorphAnalyzer();
+  }
+  
+  /**
+   * Set query mode: only the stem of the best analysis of each korean token is returned,
+   * without spacing correction, decompounding or bigrams. This keeps query parsing fast,
+   * and still matches the terms produced at index time. As verbs are not indexed, the best
+   * analysis that is not a verb is used, or else the noun that is indexed for the token.
+   * @throws IllegalStateException if an eojeol table is set, which was built for the other mode
+   */
+  public void setQueryMode(boolean queryMode) {
+    boolean oldQueryMode = this.queryMode;
+    this.queryMode = queryMode;
+    if (eojeolTable != null && !eojeolTable.getConfig().equals(getConfig())) {
+      this.queryMode = oldQueryMode;
+      throw new IllegalStateException("Eojeol table was built with configuration " + eojeolTable.getConfig() + 
+          ": set the query mode before the table, or remove the table");
+    }
+  }
+  
+  /** @see #setQueryMode */
+  public boolean isQueryMode() {
+    return queryMode;
+  }
+  
+  /** number of tokens read ahead and analyzed together, or 0 */
+  public int getWindowSize() {
+    return windowSize;
+  }
+  
+  /**
+   * Set a table of precomputed eojeols: their tokens are returned from the table instead
+   * of being analyzed. The table must have been built with the same configuration 
+   * (see {@link #getConfig()}), so set this after the query mode: the query mode can not be
+   * changed while a table is set. Tables are not used in window mode.
+   * @param table  the table, or null to analyze every eojeol
+   * @throws IllegalArgumentException if the table was built with another configuration
+   */
+  public void setEojeolTable(EojeolTable table) {
+    if (table != null && !table.getConfig().equals(getConfig())) {
+      throw new IllegalArgumentException("Table was built with configuration " + table.getConfig() + 
+          ", but this filter has " + getConfig());
+    }
+    this.eojeolTable = table;
+  }
+  
+  /** the options that change the tokens returned for an eojeol */
+  public String getConfig() {
+    return "bigram=" + bigrammable + ",origin=" + hasOrigin + ",cnoun=" + originCNoun + 
+        ",query=" + queryMode + "," + engineConfig;
   }
   
   public boolean incrementToken() throws IOException {
     if (!morphQueue.isEmpty()) {
       restoreState(currentState);
       setAttributesFromQueue(false);
+      metrics.outputTokens++;
       return true;
     }
 
-    while (input.incrementToken()) {
+    while (nextInput()) {
       final String type = typeAtt.type();
       if (KOREAN_TYPE.equals(type)) {
         analysisKorean(termAtt.toString());
       } else if (CHINESE_TYPE.equals(type)) {
+        long start = metrics.start();
         analysisChinese(termAtt.toString());
+        metrics.stop(Stage.CHINESE, start);
       } else {
+        metrics.outputTokens++;
         return true; // pass anything else thru
       }        
   
       if (!morphQueue.isEmpty()) {
         setAttributesFromQueue(true);
+        metrics.outputTokens++;
         return true;
       }
     }
@@ -118,6 +264,120 @@ public final class KoreanFilter extends TokenFilter {
   }
   
 
+  /** advances to the next input token: in window mode, this is the next token of the window */
+  private boolean nextInput() throws IOException {
+    if (windowSize <= 0) {
+      if (!input.incrementToken()) {
+        return false;
+      }
+    } else {
+      if (windowPos == window.size() && !fillWindow()) {
+        return false;
+      }
+      restoreState(window.get(windowPos++));
+    }
+    metrics.inputTokens++;
+    return true;
+  }
+  
+  /** 
+   * reads the next window of input tokens, and finds the words to join. When the last token of the window
+   * is korean, the next token is read ahead to find its join, and it starts the next window.
+   * returns false if there are no tokens.
+   */
+  private boolean fillWindow() throws IOException {
+    window.clear();
+    joins.clear();
+    windowCache.clear();
+    windowPos = 0;
+    if (nextState != null) {
+      window.add(nextState);
+      joins.add(null);
+      nextState = null;
+    }
+    
+    while (!inputExhausted) {
+      boolean full = window.size() >= windowSize;
+      if (full && previous == null) {
+        break;
+      }
+      if (!input.incrementToken()) {
+        inputExhausted = true;
+        break;
+      }
+      Join join = null;
+      if (KOREAN_TYPE.equals(typeAtt.type())) {
+        String term = termAtt.toString();
+        // 띄어쓰기가 잘못되어 한 단어가 두 어절로 나뉜 경우: 둘 중 하나가 분석되지 않고, 붙여야 분석되는 경우
+        if (previous != null && previousEnd + 1 == offsetAtt.startOffset() && 
+            (!isCorrect(analyze(previous)) || !isCorrect(analyze(term))) &&
+            isJoinedNoun(analyze(previous + term), previous.length())) {
+          join = new Join(previous + term, previous.length(), offsetAtt.endOffset());
+        }
+        previous = term;
+        previousEnd = offsetAtt.endOffset();
+      } else {
+        previous = null;
+      }
+      if (join != null) {
+        joins.set(joins.size() - 1, join);
+      }
+      if (full) {
+        nextState = captureState();
+        break;
+      }
+      window.add(captureState());
+      joins.add(null);
+    }
+    return !window.isEmpty();
+  }
+  
+  /** analyzes the word: in window mode, each distinct word of the window only once */
+  private List<AnalysisOutput> analyze(String word) {
+    if (windowSize <= 0) {
+      return analyzeMorph(word);
+    }
+    List<AnalysisOutput> outputs = windowCache.get(word);
+    if (outputs == null) {
+      metrics.cacheMisses++;
+      outputs = analyzeMorph(word);
+      windowCache.put(word, outputs);
+    } else {
+      metrics.cacheHits++;
+    }
+    return outputs;
+  }
+  
+  private List<AnalysisOutput> analyzeMorph(String word) {
+    long start = metrics.start();
+    List<AnalysisOutput> outputs = (queryMode || windowSize > 0 ? morph : nounMorph).analyze(word);
+    metrics.stop(Stage.MORPH, start);
+    return outputs;
+  }
+  
+  /** the first output which is not a verb, or null */
+  private static AnalysisOutput firstNoun(List<AnalysisOutput> outputs) {
+    for (AnalysisOutput output : outputs) {
+      if (output.getPos() != PatternConstants.POS_VERB) {
+        return output;
+      }
+    }
+    return null;
+  }
+  
+  private static boolean isCorrect(List<AnalysisOutput> outputs) {
+    return outputs.size() > 0 && outputs.get(0).getScore() == AnalysisOutput.SCORE_CORRECT;
+  }
+  
+  /** true if the joined word is a noun of the dictionary, which spans the space */
+  private static boolean isJoinedNoun(List<AnalysisOutput> outputs, int space) {
+    if (!isCorrect(outputs)) {
+      return false;
+    }
+    String stem = outputs.get(0).getStem();
+    return stem.length() > space && DictionaryUtil.hasAllNoun(stem);
+  }
+
   private void setAttributesFromQueue(boolean isFirst) {
     final Token iw = morphQueue.removeFirst();
     if (isFirst && !morphQueue.isEmpty()) {
@@ -129,7 +389,7 @@ public final class KoreanFilter extends TokenFilter {
     }
     
     termAtt.setEmpty().append(iw.word);
-    offsetAtt.setOffset(iw.offset, iw.offset + iw.word.length());
+    offsetAtt.setOffset(iw.offset, iw.endOffset >= 0 ? iw.endOffset : iw.offset + iw.word.length());
     
     // on the first Token we preserve incoming increment:
     if (!isFirst) {
@@ -143,34 +403,72 @@ public final class KoreanFilter extends TokenFilter {
    * 한글을 분석한다.
    */
   private void analysisKorean(String input) {
+    
+    if (eojeolTable != null && windowSize <= 0 && eojeolTable.get(input, offsetAtt.startOffset(), morphQueue)) {
+      metrics.tableHits++;
+      return;
+    }
 
-    List<AnalysisOutput> outputs = morph.analyze(input);
+    List<AnalysisOutput> outputs = analyze(input);
     if(outputs.size()==0) return;
     
+    if (queryMode) {
+      // 동사는 색인되지 않으므로, 명사인 첫번째 결과를 쓴다. 없으면 색인할 때처럼 명사만 분석한다.
+      AnalysisOutput best = firstNoun(outputs);
+      if (best == null) {
+        long start = metrics.start();
+        best = firstNoun(nounMorph.analyze(input));
+        metrics.stop(Stage.MORPH, start);
+      }
+      if (best != null) {
+        morphQueue.add(new Token(best.getStem(), offsetAtt.startOffset()));
+      }
+      return;
+    }
+    
     Map<String,Token> map = new LinkedHashMap<String,Token>();
-    if(hasOrigin) map.put("0:"+input, new Token(input,0));
+    if(hasOrigin) map.put("0:"+input, new Token(input,offsetAtt.startOffset()));
 
     if(outputs.get(0).getScore()>=AnalysisOutput.SCORE_COMPOUNDS) {
       extractKeyword(outputs,offsetAtt.startOffset(), map, 0);      
     } else {
-      try {
-        List<AnalysisOutput> list = wsAnal.analyze(input);
-        
+      long start = metrics.start();
+      List<AnalysisOutput> list = wsAnal.analyze(input);
+      metrics.stop(Stage.WORD_SPACE, start);
+      
+      if (list == null) {
+        // 띄어쓰기 분석이 한도를 넘으면, 첫번째 결과와 bigram 을 추출한다.
+        extractKeyword(outputs.subList(0, 1), offsetAtt.startOffset(), map, 0);
+        addBiagramToMap(input, offsetAtt.startOffset(), map, 0);
+      } else {
         List<AnalysisOutput> results = new ArrayList<AnalysisOutput>();    
         if(list.size()>1 && wsAnal.getOutputScore(list)>AnalysisOutput.SCORE_ANALYSIS) {
           int offset = 0;
           for(AnalysisOutput o : list) {
             if(hasOrigin) map.put(o.getSource(), new Token(o.getSource(),offsetAtt.startOffset()+offset,1));        
-            results.addAll(morph.analyze(o.getSource()));
+            results.addAll(analyze(o.getSource()));
             offset += o.getSource().length();
           }       
         } else {
           results.addAll(outputs);
         }
         extractKeyword(results, offsetAtt.startOffset(), map, 0);
-      } catch (StringIndexOutOfBoundsException e) {
-        // nocommit: Fix this stupidness with catch, instead fix in WSOutput
-        extractKeyword(outputs.subList(0, 1), offsetAtt.startOffset(), map, 0);
+      }
+    }
+    
+    // 다음 어절과 붙여야 분석되는 경우, 붙인 단어의 명사도 추출한다.
+    Join join = windowSize > 0 ? joins.get(windowPos - 1) : null;
+    if (join != null) {
+      for (AnalysisOutput output : analyze(join.word)) {
+        if (output.getPos() == PatternConstants.POS_VERB) continue;
+        String stem = output.getStem();
+        String key = "0:" + stem;
+        if (!map.containsKey(key)) {
+          // 붙인 단어의 명사는 두 어절 사이의 공백을 포함한다.
+          int end = stem.length() > join.space ? 
+              Math.min(join.endOffset, offsetAtt.startOffset() + stem.length() + 1) : -1;
+          map.put(key, new Token(stem, offsetAtt.startOffset(), map.isEmpty() ? 1 : 0, end));
+        }
       }
     }
         
@@ -289,57 +587,21 @@ public final class KoreanFilter extends TokenFilter {
     morphQueue.add(new Token(term,0));
     if(term.length()<2) return; // 1글자 한자는 색인어로 한글을 추출하지 않는다.
     
-    List<StringBuilder> candiList = new ArrayList<StringBuilder>();
-    candiList.add(new StringBuilder());
-    
-    for(int i=0;i<term.length();i++) {
-
-      char[] chs = HanjaMapper.convertToHangul(term.charAt(i));      
-    
-      List<StringBuilder> removeList = new ArrayList<StringBuilder>(); // 제거될 후보를 저장  
-      
-      int caniSize = candiList.size();
-      
-      for(int j=0;j<caniSize;j++) { 
-        String origin = candiList.get(j).toString();
-
-        for(int k=0;k<chs.length;k++) { // 추가로 생성된 음에 대해서 새로운 텍스트를 생성한다.
-          
-          if(k==4) break; // 4개 이상의 음을 가지고 있는 경우 첫번째 음으로만 처리를 한다.
-          
-          StringBuilder sb = candiList.get(j);
-          if(k>0) sb = new StringBuilder(origin);
-          
-          sb.append(chs[k]);          
-          if(k>0)  candiList.add(sb);
-          
-          if (!DictionaryUtil.hasWordPrefix(sb)) {
-            removeList.add(sb); // 사전에 없으면 삭제 후보
-          }  
-        }        
-      }            
-
-      if(removeList.size()==candiList.size()) { // 사전에서 찾은 단어가 하나도 없다면.. 
-        candiList = candiList.subList(0, 1); // 첫번째만 생성하고 나머지는 버림
-      } 
-      
-      for(StringBuilder rsb : removeList) {
-        if(candiList.size()>1) candiList.remove(rsb);
-      }
+    if (hanjaReadings == null) {
+      hanjaReadings = new HanjaReadings();
     }
-
-    int maxCandidate = 5;
-    if(candiList.size()<maxCandidate) maxCandidate=candiList.size();
-    
-    for(int i=0;i<maxCandidate;i++) {
-      morphQueue.add(new Token(candiList.get(i).toString(),0));
+    List<String> candiList = hanjaReadings.generate(term, MAX_HANJA_READINGS);
+    for (String candidate : candiList) {
+      morphQueue.add(new Token(candidate,0));
     }
     
     Map<String, String> cnounMap = new HashMap<String, String>();
     
     // 추출된 명사가 복합명사인 경우 분리한다.
-    for(int i=0;i<maxCandidate;i++) {
-      CompoundEntry results[] = cnAnalyzer.analyze(candiList.get(i).toString());
+    for (String candidate : candiList) {
+      long start = metrics.start();
+      CompoundEntry results[] = cnAnalyzer.analyze(candidate);
+      metrics.stop(Stage.COMPOUND_NOUN, start);
       
       int pos = 0;
       int offset = 0;
@@ -370,14 +632,29 @@ public final class KoreanFilter extends TokenFilter {
     return false;
   }
   
+  @Override
+  public void end() throws IOException {
+    super.end();
+    metrics.flush();
+  }
+  
   @Override
   public void reset() throws IOException {
     super.reset();
+    metrics.reset();
     morphQueue.clear();
     currentState = null;
+    window.clear();
+    joins.clear();
+    windowCache.clear();
+    windowPos = 0;
+    previous = null;
+    previousEnd = -1;
+    nextState = null;
+    inputExhausted = false;
   }
   
-  private static final class Token {
+  static final class Token {
 
     // the word to be indexed
     final String word;
@@ -388,15 +665,42 @@ public final class KoreanFilter extends TokenFilter {
     // when the input text is a chinese text, the korean sound text of it is extracted as a index word. 
     final int increment;
     
+    // the end offset, or -1 if the word ends at offset + its length
+    final int endOffset;
+    
     Token(String word, int offset) {
       this(word, offset, 1);
     }
     
     Token(String word, int offset, int inc) {
+      this(word, offset, inc, -1);
+    }
+    
+    Token(String word, int offset, int inc, int endOffset) {
       this.word = word;
       this.offset = offset;
       this.increment = inc;
+      this.endOffset = endOffset;
     }
     
   }
+  
+  /** two adjacent tokens of the window, which are analyzed together */
+  private static final class Join {
+    
+    // the joined word, without the space
+    final String word;
+    
+    // the length of the first token
+    final int space;
+    
+    // the end offset of the second token
+    final int endOffset;
+    
+    Join(String word, int space, int endOffset) {
+      this.word = word;
+      this.space = space;
+      this.endOffset = endOffset;
+    }
+  }
 }
@@ -17,10 +17,16 @@ package org.apache.lucene.analysis.ko;
  * limitations under the License.
  */
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ko.morph.WordSpaceAnalyzer;
+import org.apache.lucene.analysis.util.ResourceLoader;
+import org.apache.lucene.analysis.util.ResourceLoaderAware;
 import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.lucene.util.IOUtils;
 
 /**
  * Factory for {@link org.apache.lucene.analysis.ko.KoreanFilter}.
@@ -33,13 +39,19 @@ import org.apache.lucene.analysis.util.TokenFilterFactory;
  *       hasOrigin="true"
  *       hasCNoun="true"
  *       exactMatch="false"
+ *       window="0"
+ *       spacingSteps="512"
+ *       spacingMillis="0"
+ *       queryMode="false"
+ *       fastPath="false"
+ *       eojeolTable="eojeol.dat"
  *     /&gt;
  *   &lt;/filter&gt;
  * &lt;/fieldType&gt;
  * </pre>
  */
 
-public class KoreanFilterFactory extends TokenFilterFactory {
+public class KoreanFilterFactory extends TokenFilterFactory implements ResourceLoaderAware {
 
   private static final String BIGRAMMABLE_PARAM = "bigrammable";
 
@@ -50,6 +62,22 @@ public class KoreanFilterFactory extends TokenFilterFactory {
   // Decides whether the original compound noun is returned or not if analyzed morphologically
   private static final String EXACT_MATCH_PARAM = "exactMatch";
   
+  // Number of tokens analyzed together (0 analyzes each token by itself)
+  private static final String WINDOW_PARAM = "window";
+  
+  // Budget to split a token without spaces into words (the time limit is off by default)
+  private static final String SPACING_STEPS_PARAM = "spacingSteps";
+  private static final String SPACING_MILLIS_PARAM = "spacingMillis";
+  
+  // Returns only the best stem of each token (use this in a query analyzer)
+  private static final String QUERY_MODE_PARAM = "queryMode";
+  
+  // Returns two-syllable dictionary nouns (with a josa) without the other analyses (drops a few verb keywords)
+  private static final String FAST_PATH_PARAM = "fastPath";
+  
+  // Resource with the precomputed tokens of frequent eojeols (see EojeolTable)
+  private static final String EOJEOL_TABLE_PARAM = "eojeolTable";
+  
   private final boolean bigrammable;
 
   private final boolean hasOrigin;
@@ -58,6 +86,20 @@ public class KoreanFilterFactory extends TokenFilterFactory {
 
   private final boolean exactMatch;
   
+  private final int window;
+  
+  private final int spacingSteps;
+  
+  private final int spacingMillis;
+  
+  private final boolean queryMode;
+  
+  private final boolean fastPath;
+  
+  private final String eojeolTableFile;
+  
+  private EojeolTable eojeolTable;
+  
   /**
    * Initialize this factory via a set of key-value pairs.
    */
@@ -67,12 +109,33 @@ public class KoreanFilterFactory extends TokenFilterFactory {
     hasOrigin = getBoolean(args, HAS_ORIGIN_PARAM, true);
     exactMatch = getBoolean(args, EXACT_MATCH_PARAM, false);
     hasCNoun = getBoolean(args, HAS_COMPOUND_NOUN_PARAM, true);
+    window = getInt(args, WINDOW_PARAM, 0);
+    spacingSteps = getInt(args, SPACING_STEPS_PARAM, WordSpaceAnalyzer.DEFAULT_MAX_STEPS);
+    spacingMillis = getInt(args, SPACING_MILLIS_PARAM, 0);
+    queryMode = getBoolean(args, QUERY_MODE_PARAM, false);
+    fastPath = getBoolean(args, FAST_PATH_PARAM, false);
+    eojeolTableFile = get(args, EOJEOL_TABLE_PARAM);
     if (!args.isEmpty()) {
       throw new IllegalArgumentException("Unknown parameters: " + args);
     }
   }
 
+  @Override
+  public void inform(ResourceLoader loader) throws IOException {
+    if (eojeolTableFile != null) {
+      InputStream stream = loader.openResource(eojeolTableFile);
+      try {
+        eojeolTable = EojeolTable.read(stream);
+      } finally {
+        IOUtils.closeWhileHandlingException(stream);
+      }
+    }
+  }
+
   public TokenStream create(TokenStream tokenstream) {
-    return new KoreanFilter(tokenstream, bigrammable, hasOrigin, exactMatch, hasCNoun);
+    KoreanFilter filter = new KoreanFilter(tokenstream, bigrammable, hasOrigin, exactMatch, hasCNoun, window, spacingSteps, spacingMillis, fastPath);
+    filter.setQueryMode(queryMode);
+    filter.setEojeolTable(eojeolTable);
+    return filter;
   }
 }
@@ -0,0 +1,89 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.core.StopFilter;
+import org.apache.lucene.analysis.ko.morph.LightStemmer;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.analysis.util.StopwordAnalyzerBase;
+import org.apache.lucene.util.Version;
+
+/**
+ * A fast Korean Analyzer for high-volume fields: {@link SimpleKoreanTokenizer},
+ * {@link LowerCaseFilter}, {@link KoreanLightStemFilter} and {@link StopFilter}.
+ * <p>
+ * Each token returns one term, its stem without josa or eomi. There are no compound
+ * nouns, no spacing correction, no hanja readings and no bigrams: use {@link KoreanAnalyzer}
+ * where they are needed.
+ */
+public class KoreanLightAnalyzer extends StopwordAnalyzerBase {
+
+  private int maxTokenLength = KoreanAnalyzer.DEFAULT_MAX_TOKEN_LENGTH;
+
+  private int minStemLength = LightStemmer.DEFAULT_MIN_STEM_LENGTH;
+
+  public KoreanLightAnalyzer(Version matchVersion) {
+    this(matchVersion, KoreanAnalyzer.STOP_WORDS_SET);
+  }
+
+  public KoreanLightAnalyzer(Version matchVersion, CharArraySet stopWords) {
+    super(matchVersion, stopWords);
+  }
+
+  @Override
+  protected TokenStreamComponents createComponents(final String fieldName, final Reader reader) {
+    final SimpleKoreanTokenizer src = new SimpleKoreanTokenizer(reader);
+    src.setMaxTokenLength(maxTokenLength);
+    TokenStream tok = new LowerCaseFilter(matchVersion, src);
+    tok = new KoreanLightStemFilter(tok, minStemLength);
+    tok = new StopFilter(matchVersion, tok, stopwords);
+    return new TokenStreamComponents(src, tok) {
+      @Override
+      protected void setReader(final Reader reader) throws IOException {
+        src.setMaxTokenLength(KoreanLightAnalyzer.this.maxTokenLength);
+        super.setReader(reader);
+      }
+    };
+  }
+
+  /**
+   * Set maximum allowed token length. If a token is seen that exceeds this length then it is discarded.
+   * This setting only takes effect the next time tokenStream is called.
+   */
+  public void setMaxTokenLength(int length) {
+    maxTokenLength = length;
+  }
+
+  /** @see #setMaxTokenLength */
+  public int getMaxTokenLength() {
+    return maxTokenLength;
+  }
+
+  /**
+   * set the minimum length of a stem: a josa or eomi is only removed if at least this
+   * many characters are left. This only takes effect for the streams created after it is set.
+   */
+  public void setMinStemLength(int length) {
+    minStemLength = length;
+  }
+}
@@ -0,0 +1,71 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ko.morph.LightStemmer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.KeywordAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+/**
+ * A {@link TokenFilter} that strips the josa or eomi of korean tokens with a {@link LightStemmer}.
+ * <p>
+ * This is much cheaper than {@link KoreanFilter}: one term per token, no morphological
+ * analysis, no spacing correction and no decompounding. Use it for high-volume fields
+ * (titles, tags, comments) where the recall of {@link KoreanFilter} is not needed.
+ * Only tokens of type {@link KoreanTokenizer#KOREAN} are stemmed, and tokens marked
+ * with {@link KeywordAttribute} are kept as they are.
+ */
+public final class KoreanLightStemFilter extends TokenFilter {
+
+  private static final String KOREAN_TYPE = KoreanTokenizer.TOKEN_TYPES[KoreanTokenizer.KOREAN];
+
+  private final LightStemmer stemmer;
+
+  private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+  private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+  private final KeywordAttribute keywordAtt = addAttribute(KeywordAttribute.class);
+
+  public KoreanLightStemFilter(TokenStream input) {
+    this(input, LightStemmer.DEFAULT_MIN_STEM_LENGTH);
+  }
+
+  /**
+   * @param input  input token stream
+   * @param minStemLength  a josa or eomi is only removed if at least this many characters are left.
+   */
+  public KoreanLightStemFilter(TokenStream input, int minStemLength) {
+    super(input);
+    stemmer = new LightStemmer(minStemLength);
+  }
+
+  @Override
+  public boolean incrementToken() throws IOException {
+    if (!input.incrementToken()) {
+      return false;
+    }
+    if (!keywordAtt.isKeyword() && KOREAN_TYPE.equals(typeAtt.type())) {
+      termAtt.setLength(stemmer.stem(termAtt));
+    }
+    return true;
+  }
+}
@@ -0,0 +1,63 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Map;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ko.morph.LightStemmer;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+
+/**
+ * Factory for {@link KoreanLightStemFilter}.
+ * <pre class="prettyprint">
+ * &lt;fieldType name="text_kr_light" class="solr.TextField"&gt;
+ *   &lt;analyzer&gt;
+ *     &lt;tokenizer class="solr.KoreanTokenizerFactory" simple="true"/&gt;
+ *     &lt;filter class="solr.LowerCaseFilterFactory"/&gt;
+ *     &lt;filter class="solr.KoreanLightStemFilterFactory" minStemLength="2"/&gt;
+ *   &lt;/analyzer&gt;
+ * &lt;/fieldType&gt;
+ * </pre>
+ */
+public class KoreanLightStemFilterFactory extends TokenFilterFactory {
+
+  // A josa or eomi is only removed if at least this many characters are left
+  private static final String MIN_STEM_LENGTH_PARAM = "minStemLength";
+
+  private final int minStemLength;
+
+  /**
+   * Initialize this factory via a set of key-value pairs.
+   */
+  public KoreanLightStemFilterFactory(Map<String, String> args) {
+    super(args);
+    minStemLength = getInt(args, MIN_STEM_LENGTH_PARAM, LightStemmer.DEFAULT_MIN_STEM_LENGTH);
+    if (minStemLength < 1) {
+      throw new IllegalArgumentException(MIN_STEM_LENGTH_PARAM + " must be at least 1: " + minStemLength);
+    }
+    if (!args.isEmpty()) {
+      throw new IllegalArgumentException("Unknown parameters: " + args);
+    }
+  }
+
+  @Override
+  public TokenStream create(TokenStream input) {
+    return new KoreanLightStemFilter(input, minStemLength);
+  }
+}
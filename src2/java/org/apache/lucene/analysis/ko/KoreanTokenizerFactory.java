@@ -25,12 +25,19 @@ import org.apache.lucene.analysis.util.TokenizerFactory;
 import org.apache.lucene.util.AttributeSource;
 
 public class KoreanTokenizerFactory extends TokenizerFactory {
+  private static final String SIMPLE_PARAM = "simple";
+  
+  private final boolean simple;
 
   /**
    * Initialize this factory via a set of key-value pairs.
+   * <p>
+   * If <code>simple="true"</code>, a {@link SimpleKoreanTokenizer} is created
+   * instead of the JFlex-based {@link KoreanTokenizer}.
    */
   public KoreanTokenizerFactory(Map<String, String> args) {
     super(args);
+    simple = getBoolean(args, SIMPLE_PARAM, false);
     if (!args.isEmpty()) {
       throw new IllegalArgumentException("Unknown parameters: " + args);
     }
@@ -38,6 +45,10 @@ public class KoreanTokenizerFactory extends TokenizerFactory {
 
   @Override
   public Tokenizer create(AttributeSource.AttributeFactory factory, Reader input) {
-    return new KoreanTokenizer(factory, input);
+    if (simple) {
+      return new SimpleKoreanTokenizer(factory, input);
+    } else {
+      return new KoreanTokenizer(factory, input);
+    }
   }
 }
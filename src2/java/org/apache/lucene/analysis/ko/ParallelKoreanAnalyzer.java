@@ -0,0 +1,358 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionLengthAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.ArrayUtil;
+
+/**
+ * Analyzes large documents with another analyzer (usually {@link KoreanAnalyzer}) on several threads.
+ * <p>
+ * The text of a field is split into chunks of about {@link #getChunkSize()} characters, at the end
+ * of a sentence if there is one near the limit, or else at a whitespace. The chunks are analyzed
+ * concurrently in a {@link ForkJoinPool}, and their tokens are returned in order as a single stream,
+ * with offsets into the whole text and positions that continue from one chunk to the next.
+ * A text of a single chunk is analyzed on the calling thread.
+ * <p>
+ * The whole text and its tokens are kept in memory. Only the term, offsets, position increment,
+ * position length and type of the tokens are kept: other attributes (payloads, flags, keywords)
+ * are not returned. The tokens are the same as the delegate's, except that the chunks are
+ * analyzed independently: analyses that join adjacent tokens (the window of {@link KoreanFilter})
+ * do not cross the end of a chunk.
+ */
+public final class ParallelKoreanAnalyzer extends Analyzer {
+
+  /** Default number of characters of a chunk */
+  public static final int DEFAULT_CHUNK_SIZE = 16 * 1024;
+
+  private final Analyzer delegate;
+  private final ForkJoinPool pool;
+  private final boolean ownsPool;
+  private final int chunkSize;
+
+  /**
+   * Analyzes chunks of {@link #DEFAULT_CHUNK_SIZE} characters in a pool with one thread per
+   * processor, which is shut down when this analyzer is closed.
+   */
+  public ParallelKoreanAnalyzer(Analyzer delegate) {
+    this(delegate, new ForkJoinPool(), true, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param delegate  analyzer of each chunk: it is called from the threads of the pool.
+   * @param pool  pool that analyzes the chunks, shared with other analyzers: it is not shut down
+   *              when this analyzer is closed.
+   * @param chunkSize  number of characters of a chunk.
+   */
+  public ParallelKoreanAnalyzer(Analyzer delegate, ForkJoinPool pool, int chunkSize) {
+    this(delegate, pool, false, chunkSize);
+  }
+
+  private ParallelKoreanAnalyzer(Analyzer delegate, ForkJoinPool pool, boolean ownsPool, int chunkSize) {
+    super(PER_FIELD_REUSE_STRATEGY);
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunkSize must be at least 1: " + chunkSize);
+    }
+    this.delegate = delegate;
+    this.pool = pool;
+    this.ownsPool = ownsPool;
+    this.chunkSize = chunkSize;
+  }
+
+  /** number of characters of a chunk */
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  @Override
+  protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+    return new TokenStreamComponents(new ChunkTokenizer(fieldName, reader));
+  }
+
+  @Override
+  public int getPositionIncrementGap(String fieldName) {
+    return delegate.getPositionIncrementGap(fieldName);
+  }
+
+  @Override
+  public int getOffsetGap(String fieldName) {
+    return delegate.getOffsetGap(fieldName);
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    if (ownsPool) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Returns the start of each chunk of the text, and the length of the text last.
+   * A chunk ends after the last sentence end ('.', '?', '!', newline) followed by a whitespace
+   * in the second half of the chunk, or else after the last whitespace, or else at the first
+   * whitespace after the chunk.
+   */
+  static int[] split(CharSequence text, int chunkSize) {
+    final int length = text.length();
+    int bounds[] = new int[] { 0 };
+    int count = 1;
+    int start = 0;
+    while (length - start > chunkSize) {
+      int end = boundary(text, start, start + chunkSize);
+      if (end == length) {
+        break;
+      }
+      bounds = ArrayUtil.grow(bounds, count + 1);
+      bounds[count++] = end;
+      start = end;
+    }
+    bounds = ArrayUtil.grow(bounds, count + 1);
+    bounds[count++] = length;
+    return Arrays.copyOf(bounds, count);
+  }
+
+  /** end of the chunk that starts at start and should end at limit */
+  private static int boundary(CharSequence text, int start, int limit) {
+    int whitespace = -1;
+    for (int i = limit; i > start; i--) {
+      if (Character.isWhitespace(text.charAt(i))) {
+        char previous = text.charAt(i-1);
+        if (i > start + (limit - start) / 2 &&
+            (previous == '.' || previous == '?' || previous == '!' || previous == '\n')) {
+          return i;
+        } else if (whitespace < 0) {
+          whitespace = i;
+        }
+      }
+    }
+    if (whitespace > start) {
+      return whitespace;
+    }
+    int i = limit;
+    while (i < text.length() && !Character.isWhitespace(text.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  /** a token of a chunk, with the offsets in the chunk */
+  private static final class ChunkToken {
+    final char term[];
+    final String type;
+    final int startOffset, endOffset;
+    final int positionIncrement, positionLength;
+
+    ChunkToken(CharTermAttribute termAtt, TypeAttribute typeAtt, OffsetAttribute offsetAtt,
+        PositionIncrementAttribute posIncrAtt, PositionLengthAttribute posLenAtt) {
+      term = Arrays.copyOf(termAtt.buffer(), termAtt.length());
+      type = typeAtt.type();
+      startOffset = offsetAtt.startOffset();
+      endOffset = offsetAtt.endOffset();
+      positionIncrement = posIncrAtt.getPositionIncrement();
+      positionLength = posLenAtt.getPositionLength();
+    }
+  }
+
+  /** the tokens of a chunk, and the position increment after the last one */
+  private static final class Chunk {
+    final int start;
+    final String text;
+    final List<ChunkToken> tokens = new ArrayList<ChunkToken>();
+    int endPositionIncrement;
+
+    Chunk(int start, String text) {
+      this.start = start;
+      this.text = text;
+    }
+  }
+
+  /** analyzes a range of chunks, splitting it in two halves until it is a single chunk */
+  private final class Analysis extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final String fieldName;
+    private final Chunk chunks[];
+    private final int from, to;
+
+    Analysis(String fieldName, Chunk chunks[], int from, int to) {
+      this.fieldName = fieldName;
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from == 1) {
+        try {
+          analyze(fieldName, chunks[from]);
+        } catch (IOException e) {
+          throw new ChunkException(e);
+        }
+      } else {
+        int middle = (from + to) >>> 1;
+        invokeAll(new Analysis(fieldName, chunks, from, middle), new Analysis(fieldName, chunks, middle, to));
+      }
+    }
+  }
+
+  /** an IOException of the delegate, thrown by a task of the pool */
+  private static final class ChunkException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    ChunkException(IOException cause) {
+      super(cause);
+    }
+  }
+
+  private void analyze(String fieldName, Chunk chunk) throws IOException {
+    TokenStream ts = delegate.tokenStream(fieldName, chunk.text);
+    CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+    TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+    OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+    PositionIncrementAttribute posIncrAtt = ts.addAttribute(PositionIncrementAttribute.class);
+    PositionLengthAttribute posLenAtt = ts.addAttribute(PositionLengthAttribute.class);
+    try {
+      ts.reset();
+      while (ts.incrementToken()) {
+        chunk.tokens.add(new ChunkToken(termAtt, typeAtt, offsetAtt, posIncrAtt, posLenAtt));
+      }
+      posIncrAtt.setPositionIncrement(0);
+      ts.end();
+      chunk.endPositionIncrement = posIncrAtt.getPositionIncrement();
+    } finally {
+      ts.close();
+    }
+  }
+
+  /** reads the whole text in reset(), analyzes its chunks, and returns their tokens */
+  private final class ChunkTokenizer extends Tokenizer {
+    private final String fieldName;
+    private final StringBuilder text = new StringBuilder();
+    private final char buffer[] = new char[4096];
+
+    private Chunk chunks[] = null;
+    private int chunk, token;
+    // positions left over at the end of the previous chunks
+    private int pendingPositions;
+
+    private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+    private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+    private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+    private final PositionIncrementAttribute posIncrAtt = addAttribute(PositionIncrementAttribute.class);
+    private final PositionLengthAttribute posLenAtt = addAttribute(PositionLengthAttribute.class);
+
+    ChunkTokenizer(String fieldName, Reader input) {
+      super(input);
+      this.fieldName = fieldName;
+    }
+
+    @Override
+    public void reset() throws IOException {
+      super.reset();
+      text.setLength(0);
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        text.append(buffer, 0, read);
+      }
+
+      int bounds[] = split(text, chunkSize);
+      chunks = new Chunk[bounds.length - 1];
+      for (int i = 0; i < chunks.length; i++) {
+        chunks[i] = new Chunk(bounds[i], text.substring(bounds[i], bounds[i+1]));
+      }
+      if (chunks.length == 1) {
+        analyze(fieldName, chunks[0]);
+      } else if (chunks.length > 1) {
+        try {
+          pool.invoke(new Analysis(fieldName, chunks, 0, chunks.length));
+        } catch (RuntimeException e) {
+          // the pool may rethrow a copy of the exception of another thread, which wraps it once more
+          for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof ChunkException) {
+              throw (IOException) t.getCause();
+            }
+          }
+          throw e;
+        }
+      }
+      chunk = token = 0;
+      pendingPositions = 0;
+    }
+
+    @Override
+    public boolean incrementToken() throws IOException {
+      if (chunks == null) {
+        throw new IllegalStateException("TokenStream contract violation: reset()/close() call missing");
+      }
+      while (chunk < chunks.length && token == chunks[chunk].tokens.size()) {
+        pendingPositions += chunks[chunk].endPositionIncrement;
+        chunk++;
+        token = 0;
+      }
+      if (chunk == chunks.length) {
+        return false;
+      }
+      clearAttributes();
+      Chunk current = chunks[chunk];
+      ChunkToken next = current.tokens.get(token++);
+      termAtt.copyBuffer(next.term, 0, next.term.length);
+      typeAtt.setType(next.type);
+      offsetAtt.setOffset(correctOffset(current.start + next.startOffset), correctOffset(current.start + next.endOffset));
+      posIncrAtt.setPositionIncrement(next.positionIncrement + pendingPositions);
+      posLenAtt.setPositionLength(next.positionLength);
+      pendingPositions = 0;
+      return true;
+    }
+
+    @Override
+    public void end() throws IOException {
+      super.end();
+      int finalOffset = correctOffset(text.length());
+      offsetAtt.setOffset(finalOffset, finalOffset);
+      int positions = pendingPositions;
+      for (int i = chunk; i < chunks.length; i++) {
+        positions += chunks[i].endPositionIncrement;
+      }
+      posIncrAtt.setPositionIncrement(positions);
+    }
+
+    @Override
+    public void close() throws IOException {
+      super.close();
+      chunks = null;
+      text.setLength(0);
+    }
+  }
+}
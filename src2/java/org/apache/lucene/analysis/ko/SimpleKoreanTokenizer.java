@@ -0,0 +1,253 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+/**
+ * A faster alternative to {@link KoreanTokenizer} for hangul, hanja and
+ * alphanumeric text.
+ * <p>
+ * Characters are classified with a lookup table, and tokens are recognized
+ * by a small transition table over a reusable buffer, without backtracking.
+ * Tokens and types are the same as {@link KoreanTokenizer} for
+ * {@link KoreanTokenizer#KOREAN}, {@link KoreanTokenizer#CHINESE},
+ * {@link KoreanTokenizer#ALPHANUM} and {@link KoreanTokenizer#CJ} tokens,
+ * but there are no special rules for emails, hosts, acronyms, numbers
+ * with punctuation and so on: these are split on the punctuation.
+ */
+public final class SimpleKoreanTokenizer extends Tokenizer {
+
+  // character classes
+  private static final int OTHER = 0;
+  private static final int ALNUM = 1;
+  private static final int HANGUL = 2;
+  private static final int HANJA = 3;
+  private static final int CJ = 4;
+  // hangul jamo: a letter of both ALNUM and HANGUL tokens
+  private static final int JAMO = 5;
+
+  private static final byte CLASSES[] = new byte[Character.MAX_VALUE + 1];
+  static {
+    // same ranges as KoreanTokenizerImpl.jflex: later ones win
+    setClass(ALNUM,
+        '\u0041','\u005a', '\u0061','\u007a', '\u00c0','\u00d6', '\u00d8','\u00f6',
+        '\u00f8','\u00ff', '\u0100','\u1fff', '\uffa0','\uffdc');
+    setClass(ALNUM,
+        '\u0030','\u0039', '\u0660','\u0669', '\u06f0','\u06f9', '\u0966','\u096f',
+        '\u09e6','\u09ef', '\u0a66','\u0a6f', '\u0ae6','\u0aef', '\u0b66','\u0b6f',
+        '\u0be7','\u0bef', '\u0c66','\u0c6f', '\u0ce6','\u0cef', '\u0d66','\u0d6f',
+        '\u0e50','\u0e59', '\u0ed0','\u0ed9', '\u1040','\u1049');
+    setClass(HANGUL,
+        '\uac00','\ud7af');
+    setClass(JAMO,
+        '\u1100','\u11ff');
+    setClass(HANJA,
+        '\u3400','\u4dbf', '\u4e00','\u9fff', '\uf900','\ufaff');
+    setClass(CJ,
+        '\u3040','\u318f', '\u31f0','\u31ff', '\u3300','\u337f', '\uff65','\uff9f');
+  }
+
+  /** sets the class of each range of characters, given as pairs of first and last character */
+  private static void setClass(int clazz, char... ranges) {
+    for (int i = 0; i < ranges.length; i += 2) {
+      for (int ch = ranges[i]; ch <= ranges[i+1]; ch++) {
+        CLASSES[ch] = (byte) clazz;
+      }
+    }
+  }
+
+  // states: every state except START accepts the token read so far
+  private static final int STOP = -1;
+  private static final int START = 0;
+
+  /** 
+   * next state for state x character class: letters and digits 'A', hangul 'H', hanja 'C'.
+   * A jamo 'J' is both 'A' and 'H', as in the grammar: the next state is the one of either class
+   * which reads the longest token.
+   */
+  private static final int TRANSITIONS[][] = {
+    //OTHER ALNUM HANGUL HANJA  CJ    JAMO
+    { STOP,  1,    2,     5,    7,    8    }, // START
+    { STOP,  1,    2,     STOP, STOP, 8    }, // A+
+    { STOP,  3,    2,     STOP, STOP, 2    }, // A* H+
+    { STOP,  3,    4,     STOP, STOP, 3    }, // A* H+ A+
+    { STOP,  STOP, 4,     STOP, STOP, 4    }, // A* H+ A+ H+
+    { STOP,  6,    STOP,  5,    STOP, 6    }, // C+
+    { STOP,  6,    STOP,  STOP, STOP, 6    }, // C+ A+
+    { STOP,  STOP, STOP,  STOP, 7,    STOP }, // CJ+
+    { STOP,  8,    2,     STOP, STOP, 8    }, // A* J (A|J)*: each J may be a hangul or a letter
+  };
+
+  /** character class that keeps each state in the same state */
+  private static final int LOOPS[] = {
+    OTHER, ALNUM, HANGUL, ALNUM, HANGUL, HANJA, ALNUM, CJ, ALNUM
+  };
+
+  /** token type of each state */
+  private static final int TYPES[] = {
+    -1,
+    KoreanTokenizer.ALPHANUM,
+    KoreanTokenizer.KOREAN,
+    KoreanTokenizer.KOREAN,
+    KoreanTokenizer.KOREAN,
+    KoreanTokenizer.CHINESE,
+    KoreanTokenizer.CHINESE,
+    KoreanTokenizer.CJ,
+    KoreanTokenizer.KOREAN
+  };
+
+  private static final int IO_BUFFER_SIZE = 4096;
+
+  private final char buffer[] = new char[IO_BUFFER_SIZE];
+  private int bufferIndex = 0, dataLen = 0, offset = 0;
+
+  private int maxTokenLength = StandardAnalyzer.DEFAULT_MAX_TOKEN_LENGTH;
+
+  private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+  private final OffsetAttribute offsetAtt = addAttribute(OffsetAttribute.class);
+  private final PositionIncrementAttribute posIncrAtt = addAttribute(PositionIncrementAttribute.class);
+  private final TypeAttribute typeAtt = addAttribute(TypeAttribute.class);
+
+  public SimpleKoreanTokenizer(Reader input) {
+    super(input);
+  }
+
+  public SimpleKoreanTokenizer(AttributeFactory factory, Reader input) {
+    super(factory, input);
+  }
+
+  /** Set the max allowed token length.  Any token longer
+   *  than this is skipped. */
+  public void setMaxTokenLength(int length) {
+    this.maxTokenLength = length;
+  }
+
+  /** @see #setMaxTokenLength */
+  public int getMaxTokenLength() {
+    return maxTokenLength;
+  }
+
+  @Override
+  public boolean incrementToken() throws IOException {
+    clearAttributes();
+    int posIncr = 1;
+
+    while (true) {
+      // skip to the start of the next token
+      int state;
+      while (true) {
+        if (!fill()) {
+          return false;
+        }
+        state = TRANSITIONS[START][CLASSES[buffer[bufferIndex]]];
+        if (state != STOP) {
+          break;
+        }
+        bufferIndex++;
+      }
+
+      // consume characters until there is no transition, copying them in runs
+      final int start = offset + bufferIndex;
+      int type = TYPES[state];
+      int begin = bufferIndex++;
+      int length = 0;
+      while (true) {
+        // fast path: characters of the class that loops on this state
+        final int loop = LOOPS[state];
+        while (bufferIndex < dataLen && CLASSES[buffer[bufferIndex]] == loop) {
+          bufferIndex++;
+        }
+        if (bufferIndex == dataLen) {
+          length = append(length, begin, bufferIndex);
+          if (!fill()) {
+            break;
+          }
+          begin = bufferIndex;
+          continue;
+        }
+        state = TRANSITIONS[state][CLASSES[buffer[bufferIndex]]];
+        if (state == STOP) {
+          length = append(length, begin, bufferIndex);
+          break;
+        }
+        type = TYPES[state];
+        bufferIndex++;
+      }
+
+      if (length <= maxTokenLength) {
+        termAtt.setLength(length);
+        posIncrAtt.setPositionIncrement(posIncr);
+        offsetAtt.setOffset(correctOffset(start), correctOffset(start + length));
+        typeAtt.setType(KoreanTokenizer.TOKEN_TYPES[type]);
+        return true;
+      } else {
+        // When we skip a too-long term, we still increment the
+        // position increment
+        posIncr++;
+      }
+    }
+  }
+
+  /** appends buffer[begin..end) to the term of the given length, returns the new length */
+  private int append(int length, int begin, int end) {
+    int newLength = length + end - begin;
+    char term[] = termAtt.buffer();
+    if (newLength > term.length) {
+      term = termAtt.resizeBuffer(newLength);
+    }
+    System.arraycopy(buffer, begin, term, length, end - begin);
+    return newLength;
+  }
+
+  /** makes sure there is a character at bufferIndex, returns false at the end of input */
+  private boolean fill() throws IOException {
+    while (bufferIndex >= dataLen) {
+      offset += dataLen;
+      bufferIndex = 0;
+      dataLen = input.read(buffer);
+      if (dataLen < 0) {
+        dataLen = 0;
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void end() throws IOException {
+    super.end();
+    // set final offset
+    int finalOffset = correctOffset(offset + bufferIndex);
+    offsetAtt.setOffset(finalOffset, finalOffset);
+  }
+
+  @Override
+  public void reset() throws IOException {
+    super.reset();
+    bufferIndex = dataLen = offset = 0;
+  }
+}
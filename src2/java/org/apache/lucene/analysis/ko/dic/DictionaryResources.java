@@ -38,7 +38,7 @@ public class DictionaryResources {
   public static final String FILE_HANJA_IDX = "hanja.idx";
   public static final String FILE_HANJA_DAT = "hanja.dat";
   public static final String FILE_WORDS_DAT = "words.dat";
-  public static final int DATA_VERSION = 0;
+  public static final int DATA_VERSION = 1;
 
   private DictionaryResources() {}
 
@@ -17,18 +17,14 @@ package org.apache.lucene.analysis.ko.dic;
  * limitations under the License.
  */
 
-import java.io.BufferedInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.lucene.codecs.CodecUtil;
-import org.apache.lucene.store.DataInput;
-import org.apache.lucene.store.InputStreamDataInput;
 import org.apache.lucene.util.IOUtils;
-import org.apache.lucene.util.fst.FST;
 
 public class DictionaryUtil {
   private DictionaryUtil() {}
@@ -39,6 +35,12 @@ public class DictionaryUtil {
   private static final Set<String> eomis = new HashSet<String>();  
   private static final Set<String> uncompounds = new HashSet<String>();
   
+  private static final SuffixMatcher josaMatcher;
+  private static final SuffixMatcher eomiMatcher;
+  
+  private static volatile boolean countLookups = false;
+  private static final AtomicLong lookups = new AtomicLong();
+  
   static {  
     try {
       DictionaryResources.readLines(DictionaryResources.FILE_UNCOMPOUNDS, new LineProcessor() {
@@ -54,18 +56,14 @@ public class DictionaryUtil {
 
       readFileToSet(josas,DictionaryResources.FILE_JOSA);
       readFileToSet(eomis,DictionaryResources.FILE_EOMI);
+      josaMatcher = new SuffixMatcher(josas);
+      eomiMatcher = new SuffixMatcher(eomis);
       
       InputStream stream = DictionaryResources.class.getResourceAsStream(DictionaryResources.FILE_WORDS_DAT);
       if (stream == null)
         throw new FileNotFoundException(DictionaryResources.FILE_WORDS_DAT);
       try {
-        DataInput dat = new InputStreamDataInput(new BufferedInputStream(stream));
-        CodecUtil.checkHeader(dat, DictionaryResources.FILE_WORDS_DAT, DictionaryResources.DATA_VERSION, DictionaryResources.DATA_VERSION);
-        byte metadata[] = new byte[dat.readByte() * HangulDictionary.RECORD_SIZE];
-        dat.readBytes(metadata, 0, metadata.length);
-        ByteOutputs outputs = ByteOutputs.getSingleton();
-        FST<Byte> fst = new FST<Byte>(dat, outputs);
-        dictionary = new HangulDictionary(fst, metadata);
+        dictionary = HangulDictionary.read(stream);
       } finally {
         IOUtils.closeWhileHandlingException(stream);
       }
@@ -74,19 +72,57 @@ public class DictionaryUtil {
     }
   }
   
+  private static int lookup(CharSequence key) {
+    if (countLookups) {
+      lookups.incrementAndGet();
+    }
+    return dictionary.lookup(key);
+  }
+  
+  /** 
+   * Starts or stops counting word lookups.
+   * @see org.apache.lucene.analysis.ko.AnalysisMetrics
+   */
+  public static void setCountLookups(boolean count) {
+    countLookups = count;
+  }
+  
+  /** number of word lookups counted so far */
+  public static long getLookupCount() {
+    return lookups.get();
+  }
+  
+  /** resets the number of word lookups to 0 */
+  public static void resetLookupCount() {
+    lookups.set(0);
+  }
+  
   /** true if this word exists */
   public static boolean hasWord(CharSequence key) {
-    return dictionary.lookup(key) != null;
+    return lookup(key) >= 0;
   }
   
   /** true if word exists matching specified features */
   private static boolean hasWord(CharSequence key, int on, int off) {
-    Byte clazz = dictionary.lookup(key);
-    if (clazz == null) {
-      return false;
+    return getWordClass(key, on, off) != null;
+  }
+  
+  /** returns word class (or null) matching specified features */
+  private static WordClass getWordClass(CharSequence key, int on, int off) {
+    int clazz = lookup(key);
+    if (clazz < 0) {
+      return null;
     }
     char flags = dictionary.getFlags(clazz);
-    return (flags & on) != 0 && (flags & off) == 0;
+    if ((flags & on) != 0 && (flags & off) == 0) {
+      return dictionary.getWordClass(clazz);
+    } else {
+      return null;
+    }
+  }
+  
+  static HangulDictionary getDictionary() {
+    return dictionary;
   }
   
   /** true if something with this prefix exists */
@@ -96,25 +132,31 @@ public class DictionaryUtil {
 
   /** only use this if you surely need the whole entry */
   public static WordEntry getWord(String key) {    
-    Byte clazz = dictionary.lookup(key);
-    if (clazz == null) {
+    int clazz = lookup(key);
+    if (clazz < 0) {
+      return null;
+    } else {
+      return new WordEntry(key, dictionary.getWordClass(clazz));
+    }
+  }
+  
+  /** Looks up the class of any word: use this if you only need features */
+  public static WordClass getWordClass(CharSequence key) {
+    int clazz = lookup(key);
+    if (clazz < 0) {
       return null;
     } else {
-      return new WordEntry(key, dictionary.getFlags(clazz), clazz);
+      return dictionary.getWordClass(clazz);
     }
   }
   
   /** returns word (or null) matching specified features */
   private static WordEntry getWord(String key, int on, int off) {
-    Byte clazz = dictionary.lookup(key);
+    WordClass clazz = getWordClass(key, on, off);
     if (clazz == null) {
       return null;
-    }
-    char flags = dictionary.getFlags(clazz);
-    if ((flags & on) != 0 && (flags & off) == 0) {
-      return new WordEntry(key, flags, clazz);
     } else {
-      return null;
+      return new WordEntry(key, clazz);
     }
   }
 
@@ -128,6 +170,11 @@ public class DictionaryUtil {
     return getWord(key, WordEntry.NOUN | WordEntry.BUSA, 0);
   }
   
+  /** Looks up the class of a noun, compound noun, or adverb */
+  public static WordClass getWordClassExceptVerb(CharSequence key) {
+    return getWordClass(key, WordEntry.NOUN | WordEntry.BUSA, 0);
+  }
+  
   /** true if there exists noun (but not compound noun) */
   public static boolean hasNoun(String key) {
     return hasWord(key, WordEntry.NOUN, WordEntry.COMPOUND);
@@ -158,6 +205,11 @@ public class DictionaryUtil {
     return getWord(key, WordEntry.NOUN, 0);
   }
   
+  /** Looks up the class of a noun including compound noun */
+  public static WordClass getAllNounClass(CharSequence key) {  
+    return getWordClass(key, WordEntry.NOUN, 0);
+  }
+  
   /** true if there exists verb */
   public static boolean hasVerb(String key) {
     return hasWord(key, WordEntry.VERB, 0);
@@ -168,18 +220,23 @@ public class DictionaryUtil {
     return getWord(key, WordEntry.VERB, 0);
   }
   
+  /** Looks up the class of any verb */
+  public static WordClass getVerbClass(CharSequence key) {
+    return getWordClass(key, WordEntry.VERB, 0);
+  }
+  
   /** Looks up an adverb-only */
   public static WordEntry getBusa(String key) {
     return getWord(key, WordEntry.BUSA, WordEntry.NOUN);
   }
   
   /** return list of irregular compounds for word class. */
-  static CompoundEntry[] getIrregularCompounds(byte clazz) {
+  static CompoundEntry[] getIrregularCompounds(int clazz) {
     return dictionary.getIrregularCompounds(clazz);
   }
   
   /** return list of compounds for key and word class. */
-  static CompoundEntry[] getCompounds(String key, byte clazz) {
+  static CompoundEntry[] getCompounds(String key, int clazz) {
     return dictionary.getCompounds(key, clazz);
   }
   
@@ -196,6 +253,22 @@ public class DictionaryUtil {
     return eomis.contains(str);
   }
   
+  /** 
+   * Finds the josa endings of a word.
+   * @see SuffixMatcher#match(CharSequence, int[])
+   */
+  public static int[] matchJosa(CharSequence word, int[] reuse) {
+    return josaMatcher.match(word, reuse);
+  }
+  
+  /** 
+   * Finds the eomi endings of a word.
+   * @see SuffixMatcher#match(CharSequence, int[])
+   */
+  public static int[] matchEomi(CharSequence word, int[] reuse) {
+    return eomiMatcher.match(word, reuse);
+  }
+  
   private static void readFileToSet(final Set<String> set, String dic) throws IOException {    
     DictionaryResources.readLines(dic, new LineProcessor() {
       @Override
@@ -17,50 +17,147 @@ package org.apache.lucene.analysis.ko.dic;
  * limitations under the License.
  */
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.InputStreamDataInput;
 import org.apache.lucene.util.fst.FST;
 import org.apache.lucene.util.fst.FST.BytesReader;
+import org.apache.lucene.util.fst.IntsRefFSTEnum;
+import org.apache.lucene.util.fst.IntsRefFSTEnum.InputOutput;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
 
+/**
+ * Word dictionary: an FST mapping each word to its "word class".
+ * <p>
+ * Each class is a variable-length metadata record: 
+ * <pre>
+ *   flags(short) count(vint) value<sup>count</sup>(vint)
+ * </pre>
+ * where values are the split offsets of a regular compound, or the
+ * characters of the decompounded form of an irregular compound.
+ * <p>
+ * Compounds are decompounded once when the dictionary is loaded: the
+ * returned arrays are shared, and must not be modified.
+ */
 class HangulDictionary {
-  private final FST<Byte> fst;
+  private final FST<Long> fst;
   private final byte[] metadata;
-  private final FST.Arc<Byte> rootCache[]; // ~140kb
+  private final int[] offsets;
+  private final WordClass classes[];
+  private final FST.Arc<Long> rootCache[]; // ~140kb
+  private final CompoundEntry irregularCompounds[][]; // by word class
+  private final Map<String,CompoundEntry[]> compounds; // by word
   
-  static final int RECORD_SIZE = 15;
+  // lookups reuse an arc and reader per thread: the dictionary is shared by all threads
+  private final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+    @Override
+    protected Scratch initialValue() {
+      return new Scratch(fst.getBytesReader());
+    }
+  };
   
-  public HangulDictionary(FST<Byte> fst, byte[] metadata) {
+  /** 
+   * @param fst word to class ordinal
+   * @param metadata concatenated class records
+   * @param offsets start of each class record in {@code metadata}, plus the end of the last one
+   */
+  public HangulDictionary(FST<Long> fst, byte[] metadata, int[] offsets) {
     this.fst = fst;
     this.metadata = metadata;
+    this.offsets = offsets;
+    classes = new WordClass[offsets.length-1];
+    for (int clazz = 0; clazz < classes.length; clazz++) {
+      classes[clazz] = new WordClass(getFlags(clazz), clazz);
+    }
+    // parts such as 사업 occur in many compounds: share the entries.
+    Map<String,CompoundEntry> parts = new HashMap<>();
+    irregularCompounds = new CompoundEntry[offsets.length-1][];
+    for (int clazz = 0; clazz < irregularCompounds.length; clazz++) {
+      if ((getFlags(clazz) & WordEntry.COMPOUND_IRREGULAR) != 0) {
+        irregularCompounds[clazz] = decodeIrregularCompounds(clazz, parts);
+      }
+    }
     try {
       rootCache = cacheRootArcs();
+      compounds = cacheCompounds(parts);
     } catch (IOException bogus) {
       throw new RuntimeException(bogus);
     }
   }
   
+  /** reads word classes and fst as written by DictionaryBuilder */
+  static HangulDictionary read(InputStream stream) throws IOException {
+    DataInput dat = new InputStreamDataInput(new BufferedInputStream(stream));
+    CodecUtil.checkHeader(dat, DictionaryResources.FILE_WORDS_DAT, DictionaryResources.DATA_VERSION, DictionaryResources.DATA_VERSION);
+    int numClasses = dat.readVInt();
+    int offsets[] = new int[numClasses+1];
+    for (int i = 0; i < numClasses; i++) {
+      offsets[i+1] = offsets[i] + dat.readVInt();
+    }
+    byte metadata[] = new byte[offsets[numClasses]];
+    dat.readBytes(metadata, 0, metadata.length);
+    FST<Long> fst = new FST<Long>(dat, PositiveIntOutputs.getSingleton());
+    return new HangulDictionary(fst, metadata, offsets);
+  }
+  
   @SuppressWarnings({"rawtypes","unchecked"})
-  private FST.Arc<Byte>[] cacheRootArcs() throws IOException {
-    FST.Arc<Byte> rootCache[] = new FST.Arc[1+(0xD7AF-0xAC00)];
-    FST.Arc<Byte> firstArc = new FST.Arc<Byte>();
+  private FST.Arc<Long>[] cacheRootArcs() throws IOException {
+    FST.Arc<Long> rootCache[] = new FST.Arc[1+(0xD7AF-0xAC00)];
+    FST.Arc<Long> firstArc = new FST.Arc<Long>();
     fst.getFirstArc(firstArc);
-    FST.Arc<Byte> arc = new FST.Arc<Byte>();
+    FST.Arc<Long> arc = new FST.Arc<Long>();
     final FST.BytesReader fstReader = fst.getBytesReader();
     // TODO: jump to AC00, readNextRealArc to ceiling? (just be careful we don't add bugs)
     for (int i = 0; i < rootCache.length; i++) {
       if (fst.findTargetArc(0xAC00 + i, firstArc, arc, fstReader) != null) {
-        rootCache[i] = new FST.Arc<Byte>().copyFrom(arc);
+        rootCache[i] = new FST.Arc<Long>().copyFrom(arc);
       }
     }
     return rootCache;
   }
   
-  private FST.Arc<Byte> findTargetArc(int ch, FST.Arc<Byte> follow, FST.Arc<Byte> arc, boolean useCache, FST.BytesReader fstReader) throws IOException {
+  /** decompounds all regular compound nouns in the fst */
+  private Map<String,CompoundEntry[]> cacheCompounds(Map<String,CompoundEntry> parts) throws IOException {
+    Map<String,CompoundEntry[]> compounds = new HashMap<>();
+    IntsRefFSTEnum<Long> fstEnum = new IntsRefFSTEnum<Long>(fst);
+    InputOutput<Long> next;
+    StringBuilder sb = new StringBuilder();
+    while ((next = fstEnum.next()) != null) {
+      int clazz = next.output.intValue();
+      if ((getFlags(clazz) & (WordEntry.COMPOUND | WordEntry.COMPOUND_IRREGULAR)) == WordEntry.COMPOUND) {
+        sb.setLength(0);
+        for (int i = 0; i < next.input.length; i++) {
+          sb.append((char) next.input.ints[next.input.offset + i]);
+        }
+        String word = sb.toString();
+        compounds.put(word, decodeCompounds(word, clazz, parts));
+      }
+    }
+    return compounds;
+  }
+  
+  private static CompoundEntry part(String word, Map<String,CompoundEntry> parts) {
+    CompoundEntry entry = parts.get(word);
+    if (entry == null) {
+      entry = new CompoundEntry(word, true);
+      parts.put(word, entry);
+    }
+    return entry;
+  }
+  
+  private FST.Arc<Long> findTargetArc(int ch, FST.Arc<Long> follow, FST.Arc<Long> arc, boolean useCache, FST.BytesReader fstReader) throws IOException {
     if (useCache && ch >= 0xAC00 && ch <= 0xD7AF) {
       assert ch != FST.END_LABEL;
-      final FST.Arc<Byte> result = rootCache[ch - 0xAC00];
+      final FST.Arc<Long> result = rootCache[ch - 0xAC00];
       if (result == null) {
         return null;
       } else {
@@ -72,22 +169,22 @@ class HangulDictionary {
     }
   }
   
-  /** looks up word class for a word (exact match) */
-  Byte lookup(CharSequence key) {
+  /** looks up word class for a word (exact match), or -1 if it does not exist */
+  int lookup(CharSequence key) {
     // TODO: why is does this thing lookup empty strings?
     if (key.length() == 0) {
-      return null;
+      return -1;
     }
-    final FST.Arc<Byte> arc = fst.getFirstArc(new FST.Arc<Byte>());
-
-    final BytesReader fstReader = fst.getBytesReader();
+    final Scratch scratch = this.scratch.get();
+    final FST.Arc<Long> arc = fst.getFirstArc(scratch.arc);
+    final BytesReader fstReader = scratch.fstReader;
 
     // Accumulate output as we go
-    byte output = 0;
+    long output = 0;
     for (int i = 0; i < key.length(); i++) {
       try {
         if (findTargetArc(key.charAt(i), arc, arc, i == 0, fstReader) == null) {
-          return null;
+          return -1;
         }
       } catch (IOException bogus) {
         throw new RuntimeException();
@@ -96,62 +193,82 @@ class HangulDictionary {
     }
 
     if (arc.isFinal()) {
-      return (byte) (output + arc.nextFinalOutput);
+      return (int) (output + arc.nextFinalOutput);
     } else {
-      return null;
+      return -1;
     }
   }
   
   /** looks up features for word class */
-  char getFlags(byte clazz) {
-    int off = clazz * RECORD_SIZE;
+  char getFlags(int clazz) {
+    int off = offsets[clazz];
     return (char)((metadata[off] << 8) | (metadata[off+1] & 0xff));
   }
   
+  /** returns the shared instance for word class */
+  WordClass getWordClass(int clazz) {
+    return classes[clazz];
+  }
+  
+  /** positions a reader just after the flags of the class record */
+  private ByteArrayDataInput record(int clazz) {
+    int off = offsets[clazz] + 2;
+    return new ByteArrayDataInput(metadata, off, offsets[clazz+1] - off);
+  }
+  
   /** return list of compounds for key and word class.
    * this retrieves the splits for the class and applies them to the key */
-  CompoundEntry[] getCompounds(String word, byte clazz) {
-    int off = clazz * RECORD_SIZE;
-    int numSplits = metadata[off+2];
+  CompoundEntry[] getCompounds(String word, int clazz) {
+    CompoundEntry entries[] = compounds.get(word);
+    assert entries != null : "not a compound: " + word;
+    return entries;
+  }
+  
+  /** return list of compounds for key and word class.
+   * this retrieves the decompounded data for this irregular class */
+  CompoundEntry[] getIrregularCompounds(int clazz) {
+    assert irregularCompounds[clazz] != null : "not an irregular compound class: " + clazz;
+    return irregularCompounds[clazz];
+  }
+  
+  private CompoundEntry[] decodeCompounds(String word, int clazz, Map<String,CompoundEntry> parts) {
+    ByteArrayDataInput in = record(clazz);
+    int numSplits = in.readVInt();
     assert numSplits > 0;
     CompoundEntry compounds[] = new CompoundEntry[numSplits+1];
     int last = 0;
     for (int i = 0; i < numSplits; i++) {
-      int split = metadata[off+3+i];
-      compounds[i] = new CompoundEntry(word.substring(last, split), true);
+      int split = in.readVInt();
+      compounds[i] = part(word.substring(last, split), parts);
       last = split;
     }
-    compounds[numSplits] = new CompoundEntry(word.substring(last), true);
+    compounds[numSplits] = part(word.substring(last), parts);
     return compounds;
   }
   
-  /** return list of compounds for key and word class.
-   * this retrieves the decompounded data for this irregular class */
-  CompoundEntry[] getIrregularCompounds(byte clazz) {
-    int off = clazz * RECORD_SIZE;
-    int numChars = metadata[off+2];
-    // TODO: more efficient
+  private CompoundEntry[] decodeIrregularCompounds(int clazz, Map<String,CompoundEntry> parts) {
+    ByteArrayDataInput in = record(clazz);
+    int numChars = in.readVInt();
     List<CompoundEntry> compounds = new ArrayList<>();
     StringBuilder sb = new StringBuilder();
     for (int i = 0; i < numChars; i++) {
-      int idx = off+3+(i<<1);
-      char next = (char)((metadata[idx] << 8) | (metadata[idx+1] & 0xff));
+      char next = (char) in.readVInt();
       if (next == ',') {
-        compounds.add(new CompoundEntry(sb.toString(), true));
+        compounds.add(part(sb.toString(), parts));
         sb.setLength(0);
       } else {
         sb.append(next);
       }
     }
-    compounds.add(new CompoundEntry(sb.toString(), true));
+    compounds.add(part(sb.toString(), parts));
     return compounds.toArray(new CompoundEntry[compounds.size()]);
   }
   
   /** walks the fst for prefix and returns true if it his no dead end */
   boolean hasPrefix(CharSequence key) {
-    final FST.Arc<Byte> arc = fst.getFirstArc(new FST.Arc<Byte>());
-
-    final BytesReader fstReader = fst.getBytesReader();
+    final Scratch scratch = this.scratch.get();
+    final FST.Arc<Long> arc = fst.getFirstArc(scratch.arc);
+    final BytesReader fstReader = scratch.fstReader;
 
     for (int i = 0; i < key.length(); i++) {
       try {
@@ -165,14 +282,37 @@ class HangulDictionary {
     return true;
   }
   
+  /** returns a reader for {@link #nextArc} */
+  BytesReader getBytesReader() {
+    return fst.getBytesReader();
+  }
+  
+  /** sets arc to the arc before the first character of any word, and returns it */
+  FST.Arc<Long> getFirstArc(FST.Arc<Long> arc) {
+    return fst.getFirstArc(arc);
+  }
+  
+  /** 
+   * follows the character from the prefix ending at follow into arc (which may be follow).
+   * returns false if no word starts with the prefix and that character.
+   * first must be true for the first character of the prefix.
+   */
+  boolean nextArc(char ch, FST.Arc<Long> follow, FST.Arc<Long> arc, boolean first, BytesReader fstReader) {
+    try {
+      return findTargetArc(ch, follow, arc, first, fstReader) != null;
+    } catch (IOException bogus) {
+      throw new RuntimeException(bogus);
+    }
+  }
+  
   /** looks up word class for a word (exact match) */
   int longestMatch(CharSequence key, int flags) {
-    final FST.Arc<Byte> arc = fst.getFirstArc(new FST.Arc<Byte>());
-
-    final BytesReader fstReader = fst.getBytesReader();
+    final Scratch scratch = this.scratch.get();
+    final FST.Arc<Long> arc = fst.getFirstArc(scratch.arc);
+    final BytesReader fstReader = scratch.fstReader;
 
     // Accumulate output as we go
-    byte output = 0;
+    long output = 0;
     int max = 0;
     for (int i = 0; i < key.length(); i++) {
       try {
@@ -184,7 +324,7 @@ class HangulDictionary {
       }
       output += arc.output;
       if (arc.isFinal()) {
-        byte clazz = (byte) (output + arc.nextFinalOutput);
+        int clazz = (int) (output + arc.nextFinalOutput);
         if ((getFlags(clazz) & flags) != 0) {
           max = Math.max(max, i+1);
         }
@@ -192,4 +332,14 @@ class HangulDictionary {
     }
     return max;
   }
+  
+  /** per-thread state of a lookup */
+  private static final class Scratch {
+    final FST.Arc<Long> arc = new FST.Arc<Long>();
+    final BytesReader fstReader;
+    
+    Scratch(BytesReader fstReader) {
+      this.fstReader = fstReader;
+    }
+  }
 }
@@ -24,7 +24,11 @@ import java.io.InputStream;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.store.RAMFile;
+import org.apache.lucene.store.RAMInputStream;
+import org.apache.lucene.store.RAMOutputStream;
 import org.apache.lucene.util.IOUtils;
 import org.apache.lucene.util.packed.MonotonicBlockPackedReader;
 
@@ -44,7 +48,7 @@ public class HanjaMapper {
       if (idxStream == null)
         throw new FileNotFoundException(DictionaryResources.FILE_HANJA_IDX);
       DataInput dat = new InputStreamDataInput(new BufferedInputStream(datStream));
-      DataInput idx = new InputStreamDataInput(new BufferedInputStream(idxStream));
+      IndexInput idx = readIndexInput(idxStream);
       CodecUtil.checkHeader(dat, DictionaryResources.FILE_HANJA_DAT, DictionaryResources.DATA_VERSION, DictionaryResources.DATA_VERSION);
       CodecUtil.checkHeader(idx, DictionaryResources.FILE_HANJA_IDX, DictionaryResources.DATA_VERSION, DictionaryResources.DATA_VERSION);
       data = new char[dat.readVInt()];
@@ -52,8 +56,7 @@ public class HanjaMapper {
         data[i] = (char) dat.readShort();
         assert Character.UnicodeBlock.of(data[i]) == Character.UnicodeBlock.HANGUL_SYLLABLES;
       }
-      // index = new MonotonicBlockPackedReader(idx, idx.readVInt(), idx.readVInt(), idx.readVInt(), false);
-      index = null; 
+      index = new MonotonicBlockPackedReader(idx, idx.readVInt(), idx.readVInt(), idx.readVInt(), false);
     } catch (IOException ioe) {
       throw new Error("Cannot load resource", ioe);
     } finally {
@@ -61,6 +64,38 @@ public class HanjaMapper {
     }
   }
   
+  /** copies the stream into memory: MonotonicBlockPackedReader needs an IndexInput */
+  private static IndexInput readIndexInput(InputStream stream) throws IOException {
+    RAMFile file = new RAMFile();
+    RAMOutputStream out = new RAMOutputStream(file);
+    byte buffer[] = new byte[8192];
+    int len;
+    while ((len = stream.read(buffer)) > 0) {
+      out.writeBytes(buffer, 0, len);
+    }
+    out.close();
+    return new RAMInputStream(DictionaryResources.FILE_HANJA_IDX, file);
+  }
+  
+  /** 
+   * Copies up to readings.length hangul pronunciations of the hanja into readings,
+   * without allocating: a character that is not hanja is its own pronunciation.
+   * @return number of pronunciations copied
+   */
+  static int convertToHangul(char hanja, char readings[]) {
+    if (hanja >= HANJA_START) {
+      int idx = hanja - HANJA_START;
+      int start = (int) index.get(idx);
+      int end = Math.min((int) index.get(idx+1), start + readings.length);
+      if (end > start) {
+        System.arraycopy(data, start, readings, 0, end - start);
+        return end - start;
+      }
+    }
+    readings[0] = hanja;
+    return 1;
+  }
+  
   /** 
    * Returns array of hangul pronunciations.
    * TODO: expose this in another way */
@@ -0,0 +1,162 @@
+package org.apache.lucene.analysis.ko.dic;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FST.BytesReader;
+
+/**
+ * Generates hangul readings of a hanja word with a beam search over the dictionary.
+ * <p>
+ * Each candidate reading keeps its position in the dictionary FST, so extending it
+ * by one pronunciation is a single arc lookup. Only the first {@link #getBeamWidth()}
+ * candidates that are still prefixes of dictionary words are kept at each character,
+ * and no more than {@link #getMaxSteps()} arc lookups are made per word: once none
+ * are left, or no candidate is a prefix any more, the first candidate is completed
+ * with the first pronunciation of each remaining character.
+ * <p>
+ * Candidates are ordered by their pronunciations: the first pronunciation of each
+ * hanja (its most common reading) comes first. Buffers are reused between calls,
+ * so an instance must not be shared between threads.
+ */
+public final class HanjaReadings {
+  /** default number of candidates kept at each character */
+  public static final int DEFAULT_BEAM_WIDTH = 8;
+  /** default number of dictionary arc lookups per word */
+  public static final int DEFAULT_MAX_STEPS = 256;
+  
+  // 4개 이상의 음을 가지고 있는 경우 앞의 4개 음만 처리한다.
+  private static final int MAX_PRONUNCIATIONS = 4;
+  
+  private final HangulDictionary dictionary = DictionaryUtil.getDictionary();
+  private final BytesReader fstReader = dictionary.getBytesReader();
+  private final int beamWidth;
+  private final int maxSteps;
+  
+  private final char pronunciations[] = new char[MAX_PRONUNCIATIONS];
+  private Beam current, next;
+  
+  public HanjaReadings() {
+    this(DEFAULT_BEAM_WIDTH, DEFAULT_MAX_STEPS);
+  }
+  
+  public HanjaReadings(int beamWidth, int maxSteps) {
+    if (beamWidth < 1) {
+      throw new IllegalArgumentException("beamWidth must be > 0: " + beamWidth);
+    }
+    this.beamWidth = beamWidth;
+    this.maxSteps = maxSteps;
+    current = new Beam(beamWidth);
+    next = new Beam(beamWidth);
+  }
+  
+  public int getBeamWidth() {
+    return beamWidth;
+  }
+  
+  public int getMaxSteps() {
+    return maxSteps;
+  }
+  
+  /**
+   * Returns up to max readings of the hanja word, best first.
+   * There is always at least one reading.
+   */
+  public List<String> generate(CharSequence hanja, int max) {
+    final int len = hanja.length();
+    current.clear(len);
+    dictionary.getFirstArc(current.arcs[0]);
+    current.size = 1;
+    boolean live = true; // the candidates are prefixes of dictionary words
+    int steps = 0;
+    
+    for (int i = 0; i < len; i++) {
+      int count = HanjaMapper.convertToHangul(hanja.charAt(i), pronunciations);
+      if (!live) {
+        current.readings[0][i] = pronunciations[0];
+        continue;
+      }
+      
+      next.clear(len);
+      // 첫번째 음으로 읽은 후보가 먼저, 나머지 음으로 읽은 후보가 뒤에 온다.
+      for (int k = 0; k < count; k++) {
+        for (int j = 0; j < current.size && next.size < beamWidth; j++) {
+          if (steps == maxSteps) {
+            break;
+          }
+          steps++;
+          FST.Arc<Long> arc = next.arcs[next.size];
+          if (dictionary.nextArc(pronunciations[k], current.arcs[j], arc, i == 0, fstReader)) {
+            System.arraycopy(current.readings[j], 0, next.readings[next.size], 0, i);
+            next.readings[next.size][i] = pronunciations[k];
+            next.size++;
+          }
+        }
+      }
+      
+      if (next.size == 0) {
+        // 사전에서 찾은 단어가 하나도 없다면 첫번째 후보만 남긴다.
+        current.readings[0][i] = pronunciations[0];
+        current.size = 1;
+        live = false;
+      } else {
+        Beam swap = current;
+        current = next;
+        next = swap;
+      }
+    }
+    
+    int size = Math.min(current.size, max);
+    List<String> readings = new ArrayList<String>(size);
+    for (int j = 0; j < size; j++) {
+      readings.add(new String(current.readings[j], 0, len));
+    }
+    return readings;
+  }
+  
+  /** candidate readings with their dictionary arcs */
+  private static final class Beam {
+    final char readings[][];
+    final FST.Arc<Long> arcs[];
+    int size;
+    
+    @SuppressWarnings({"rawtypes","unchecked"})
+    Beam(int width) {
+      readings = new char[width][];
+      arcs = new FST.Arc[width];
+      for (int i = 0; i < width; i++) {
+        readings[i] = new char[16];
+        arcs[i] = new FST.Arc<Long>();
+      }
+    }
+    
+    /** empties the beam, making room for readings of the given length */
+    void clear(int length) {
+      size = 0;
+      for (int i = 0; i < readings.length; i++) {
+        if (readings[i].length < length) {
+          readings[i] = new char[ArrayUtil.oversize(length, 2)];
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package org.apache.lucene.analysis.ko.dic;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.TreeSet;
+
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.IntsRef;
+import org.apache.lucene.util.fst.Builder;
+import org.apache.lucene.util.fst.FST;
+import org.apache.lucene.util.fst.FST.BytesReader;
+import org.apache.lucene.util.fst.NoOutputs;
+import org.apache.lucene.util.fst.Util;
+
+/**
+ * Matches the endings of a word against a list of suffixes (josa or eomi).
+ * <p>
+ * The suffixes are reversed into an FST, so a single right-to-left walk
+ * over the word finds every position where a suffix may start, without
+ * creating any substrings.
+ */
+public final class SuffixMatcher {
+  /** the text from this position to the end is a suffix in the list */
+  public static final int WORD = 1;
+  /** the text from this position to the end is the ending of some suffix in the list */
+  public static final int SUFFIX = 2;
+
+  private final FST<Object> fst;
+
+  SuffixMatcher(Collection<String> suffixes) throws IOException {
+    TreeSet<String> reversed = new TreeSet<String>();
+    for (String suffix : suffixes) {
+      if (suffix.length() > 0) {
+        reversed.add(new StringBuilder(suffix).reverse().toString());
+      }
+    }
+    NoOutputs outputs = NoOutputs.getSingleton();
+    Builder<Object> builder = new Builder<Object>(FST.INPUT_TYPE.BYTE2, outputs);
+    IntsRef scratch = new IntsRef();
+    for (String s : reversed) {
+      builder.add(Util.toUTF16(s, scratch), outputs.getNoOutput());
+    }
+    fst = builder.finish();
+  }
+
+  /**
+   * Walks the text backwards from its end: reuses the array if it is large enough.
+   * @param text input text
+   * @param reuse array to reuse, or null
+   * @return array whose first text.length() elements are a combination of
+   *         {@link #WORD} and {@link #SUFFIX} (or 0) for the text from that position
+   *         to the end. If a position is 0, so are all the positions before it.
+   */
+  public int[] match(CharSequence text, int[] reuse) {
+    int len = text.length();
+    int result[] = reuse == null ? new int[len] : ArrayUtil.grow(reuse, len);
+    final FST.Arc<Object> arc = fst.getFirstArc(new FST.Arc<Object>());
+    final BytesReader fstReader = fst.getBytesReader();
+    int i = len - 1;
+    try {
+      for (; i >= 0; i--) {
+        if (fst.findTargetArc(text.charAt(i), arc, arc, fstReader) == null) {
+          break;
+        }
+        result[i] = arc.isFinal() ? WORD | SUFFIX : SUFFIX;
+      }
+    } catch (IOException bogus) {
+      throw new RuntimeException(bogus);
+    }
+    for (; i >= 0; i--) {
+      result[i] = 0;
+    }
+    return result;
+  }
+}
@@ -24,40 +24,50 @@ import java.io.InputStream;
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.store.DataInput;
 import org.apache.lucene.store.InputStreamDataInput;
+import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
 
+/**
+ * Features of hangul syllables.
+ * <p>
+ * Either test a single feature with {@link #hasFeature(char, int)}, or get all
+ * features of a syllable as a bitmask with {@link #features(char)} (or of a whole
+ * word with {@link #featuresOf(CharSequence, int[])}) and test it with
+ * {@link #hasFeature(int, int)}.
+ */
 public class SyllableFeatures {
   private SyllableFeatures() {}
 
   /** 조사의 첫음절로 사용되는 음절 49개 */
-  public static int JOSA1 = 0;
+  public static final int JOSA1 = 0;
   /** 조사의 두 번째 이상의 음절로 사용되는 음절 58개 */
-  public static int JOSA2 = 1;
+  public static final int JOSA2 = 1;
   /** 어미의 두 번째 이상의 음절로 사용되는 음절 105개 */
-  public static int EOMI2 = 2;
+  public static final int EOMI2 = 2;
   /** (용언+'-ㄴ')에 의하여 생성되는 음절 129개 */
-  public static int YNPNA = 3;
+  public static final int YNPNA = 3;
   /** (용언+'-ㄹ')에 의해 생성되는 음절 129개 */
-  public static int YNPLA = 4;
+  public static final int YNPLA = 4;
   /** (용언+'-ㅁ')에 의해 생성되는 음절 129개 */
-  public static int YNPMA = 5;
+  public static final int YNPMA = 5;
   /** (용언+'-ㅂ')에 의해 생성되는 음절 129개 */
-  public static int YNPBA = 6;
+  public static final int YNPBA = 6;
   /** 모음으로 끝나는 음절 129개중 'ㅏ/ㅓ/ㅐ/ㅔ/ㅕ'로 끝나는 것이 선어말 어미 '-었-'과 결합할 때 생성되는 음절 */
-  public static int YNPAH = 7;
+  public static final int YNPAH = 7;
   /** 받침 'ㄹ'로 끝나는 용언이 어미 '-ㄴ'과 결합할 때 생성되는 음절 */
-  public static int YNPLN = 8;
+  public static final int YNPLN = 8;
   /** 용언의 표층 형태로만 사용되는 음절 */
-  public static int WDSURF = 9;
+  public static final int WDSURF = 9;
   /** 어미 또는 어미의 변형으로 존재할 수 있는 음 (즉 IDX_EOMI 이거나 IDX_YNPNA 이후에 1이 있는 음절) */
-  public static int EOGAN = 10;
+  public static final int EOGAN = 10;
   
   private static final int NUM_FEATURES = 11;
   private static final int HANGUL_START = 0xAC00;
   private static final int HANGUL_END = 0xD7AF;
   
-  private static final FixedBitSet features;
+  /** features of each syllable, as bits (1 &lt;&lt; feature) */
+  private static final short features[];
   static {
     InputStream stream = null;
     try {
@@ -70,7 +80,17 @@ public class SyllableFeatures {
       for (int i = 0; i < bits.length; i++) {
         bits[i] = dat.readLong();
       }
-      features = new FixedBitSet(bits, (1 + HANGUL_END - HANGUL_START) * NUM_FEATURES);
+      FixedBitSet bitset = new FixedBitSet(bits, (1 + HANGUL_END - HANGUL_START) * NUM_FEATURES);
+      features = new short[1 + HANGUL_END - HANGUL_START];
+      for (int i = 0; i < features.length; i++) {
+        short mask = 0;
+        for (int feature = 0; feature < NUM_FEATURES; feature++) {
+          if (bitset.get(i * NUM_FEATURES + feature)) {
+            mask |= 1 << feature;
+          }
+        }
+        features[i] = mask;
+      }
     } catch (IOException ioe) {
       throw new Error("Cannot load ressource", ioe);
     } finally {
@@ -80,10 +100,35 @@ public class SyllableFeatures {
   
   /** Returns true if the syllable has the specified feature */
   public static boolean hasFeature(char syl, int feature) {
+    return hasFeature(features(syl), feature);
+  }
+  
+  /** Returns true if the features (as returned by {@link #features(char)}) contain the specified feature */
+  public static boolean hasFeature(int features, int feature) {
+    return (features & (1 << feature)) != 0;
+  }
+  
+  /** Returns all features of the syllable as a bitmask */
+  public static short features(char syl) {
     if (syl < HANGUL_START || syl > HANGUL_END) {
-      return false; // outside of hangul syllable range
+      return 0; // outside of hangul syllable range
     } else {
-      return features.get((syl - HANGUL_START) * NUM_FEATURES + feature);
+      return features[syl - HANGUL_START];
+    }
+  }
+  
+  /** 
+   * Returns the features of each syllable of the text: reuses the array if it is large enough.
+   * @param text input text
+   * @param reuse array to reuse, or null
+   * @return array whose first text.length() elements are the features of each syllable
+   */
+  public static int[] featuresOf(CharSequence text, int[] reuse) {
+    int len = text.length();
+    int result[] = reuse == null ? new int[len] : ArrayUtil.grow(reuse, len);
+    for (int i = 0; i < len; i++) {
+      result[i] = features(text.charAt(i));
     }
+    return result;
   }
 }
@@ -18,10 +18,20 @@ package org.apache.lucene.analysis.ko.morph;
  */
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.lucene.analysis.ko.dic.CompoundEntry;
 
+/**
+ * Result of morphological analysis of a word.
+ * <p>
+ * The compound noun and eomi lists are created lazily, and are shared
+ * between clones (and with arrays passed to {@link #setCNounList(CompoundEntry[])})
+ * until one of them is modified: so the lists returned by {@link #getCNounList()}
+ * and {@link #getElist()} must not be modified directly.
+ */
 public class AnalysisOutput implements Cloneable {
 
   public static final int SCORE_CORRECT = 100;
@@ -33,13 +43,15 @@ public class AnalysisOutput implements Cloneable {
   private String source; //분석하기 전 문자열(띄워쓰기 모듈에서 사용된다.)
   private int score; // score of this result
   private int patn; // word pattern
-  private List<CompoundEntry> compound = new ArrayList<CompoundEntry>(); // compound noun of input word
+  private List<CompoundEntry> compound; // compound noun of input word
+  private boolean compoundShared; // true if compound must be copied before modifying it
   private String stem;
   private char pos; // 3 simplified stem type
   private String nsfx; // index of noun suffix
   private String josa; // josa string
   private String eomi;  // Eomi string
-  private List<String> elist = new ArrayList<String>(); // unit-Eomi sequence
+  private List<String> elist; // unit-Eomi sequence
+  private boolean elistShared; // true if elist must be copied before modifying it
   private String pomi; // prefinal Eomi
   private String xverb; // Xverb string
   private String vsfx; // verb suffix
@@ -121,15 +133,25 @@ public class AnalysisOutput implements Cloneable {
   }
   
   public List<String> getElist() {
-    return elist;
+    return elist == null ? Collections.<String>emptyList() : elist;
   }
   
   public void addElist(String element) {
-    elist.add(element);
+    writableElist().add(element);
   }
     
   public void setElist(String element, int index) {
-    elist.set(index, element);
+    writableElist().set(index, element);
+  }
+  
+  private List<String> writableElist() {
+    if (elist == null) {
+      elist = new ArrayList<String>();
+    } else if (elistShared) {
+      elist = new ArrayList<String>(elist);
+    }
+    elistShared = false;
+    return elist;
   }
   
   public String getPomi() {
@@ -173,33 +195,38 @@ public class AnalysisOutput implements Cloneable {
   }
   
   public List<CompoundEntry> getCNounList() {
-    return compound;
+    return compound == null ? Collections.<CompoundEntry>emptyList() : compound;
   }
   
   public void setCNounList(List<CompoundEntry> cnoun) {
     compound = cnoun;
+    compoundShared = true;
   }
   
   public void addCNoun(CompoundEntry entry) {
-    compound.add(entry);
+    writableCNounList().add(entry);
   }
   
   public void addCNouns(List<CompoundEntry> cnoun) {
-    compound.addAll(cnoun);
+    writableCNounList().addAll(cnoun);
   }
   
-  // nocommit
   public void setCNounList(CompoundEntry[] cnoun) {
-    // WTF, something holds on to 'previous' cnoun list after MorphAnalyzer.confirmCnoun sets it to something new.
-    compound = new ArrayList<CompoundEntry>();
-    addCNouns(cnoun);
+    setCNounList(Arrays.asList(cnoun));
   }
   
-  // nocommit
   public void addCNouns(CompoundEntry[] cnoun) {
-    for (CompoundEntry e : cnoun) {
-      compound.add(e);
+    addCNouns(Arrays.asList(cnoun));
+  }
+  
+  private List<CompoundEntry> writableCNounList() {
+    if (compound == null) {
+      compound = new ArrayList<CompoundEntry>();
+    } else if (compoundShared) {
+      compound = new ArrayList<CompoundEntry>(compound);
     }
+    compoundShared = false;
+    return compound;
   }
   
   /**
@@ -217,10 +244,19 @@ public class AnalysisOutput implements Cloneable {
   }
   
   public AnalysisOutput clone() {
+    final AnalysisOutput clone;
     try {
-      return (AnalysisOutput)super.clone();
+      clone = (AnalysisOutput)super.clone();
     } catch (CloneNotSupportedException cnse) {
       throw new AssertionError();
     }
+    // copy-on-write: lists are only copied when one of the outputs modifies them
+    if (compound != null) {
+      compoundShared = clone.compoundShared = true;
+    }
+    if (elist != null) {
+      elistShared = clone.elistShared = true;
+    }
+    return clone;
   }
 }
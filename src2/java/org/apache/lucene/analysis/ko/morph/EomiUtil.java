@@ -39,25 +39,25 @@ class EomiUtil {
     String pomi = "";
     int index = len-1;
   
-    char[] jaso = MorphUtil.decompose(chrs[index]);
-    if(chrs[index]!='시'&&chrs[index]!='ㅆ'&&jaso[jaso.length-1]!='ㅆ') return results;  // 선어말어미가 발견되지 않았다
+    char jaso = chrs[index]; // 자소를 검사할 음절
+    if(chrs[index]!='시'&&chrs[index]!='ㅆ'&&MorphUtil.jongseong(jaso)!='ㅆ') return results;  // 선어말어미가 발견되지 않았다
     
     if(chrs[index]=='겠') {
       pomi = "겠";
       setPomiResult(results,stem.substring(0,index),pomi);    
       if(--index<=0||
-          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&jaso[jaso.length-1]!='ㅆ')) 
+          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&MorphUtil.jongseong(jaso)!='ㅆ')) 
         return results; // 다음이거나 선어말어미가 없다면...
-      jaso = MorphUtil.decompose(chrs[index]);
+      jaso = chrs[index];
     }
 
     if(chrs[index]=='었') { // 시었, ㅆ었, 었
       pomi = chrs[index]+pomi;  
       setPomiResult(results,stem.substring(0,index),pomi);    
       if(--index<=0||
-          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&jaso[jaso.length-1]!='ㅆ')) 
+          (chrs[index]!='시'&&chrs[index]!='ㅆ'&&MorphUtil.jongseong(jaso)!='ㅆ')) 
         return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);
+      jaso = chrs[index];
     }
 
     if(chrs[index]=='였'){
@@ -76,31 +76,32 @@ class EomiUtil {
       setPomiResult(results,stem.substring(0,index),pomi);    
       if(--index<=0||
           (chrs[index]!='시'&&chrs[index]!='으')) return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);    
-    }else if(jaso.length==3&&jaso[2]=='ㅆ') {
+    }else if(MorphUtil.jongseong(jaso)=='ㅆ') {
+      char cho = MorphUtil.choseong(jaso);
+      char jung = MorphUtil.jungseong(jaso);
     
-      if(jaso[0]=='ㅎ'&&jaso[1]=='ㅐ') {       
+      if(cho=='ㅎ'&&jung=='ㅐ') {       
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;  
         stem = stem.substring(0,index)+"하";  
-      }else if(jaso[0]!='ㅇ'&&(jaso[1]=='ㅏ'||jaso[1]=='ㅓ'||jaso[1]=='ㅔ'||jaso[1]=='ㅐ')) {    
+      }else if(cho!='ㅇ'&&(jung=='ㅏ'||jung=='ㅓ'||jung=='ㅔ'||jung=='ㅐ')) {    
         pomi = "었"+pomi;
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index], 0);        
-      }else if(jaso[0]!='ㅇ'&&(jaso[1]=='ㅙ')) {
+      }else if(cho!='ㅇ'&&(jung=='ㅙ')) {
         pomi = "었"+pomi;
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],11, 0);        
-      } else if(jaso[1]=='ㅘ') {      
+      } else if(jung=='ㅘ') {      
         pomi = MorphUtil.replaceJongsung('아',chrs[index])+pomi;  
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],8, 0);
-      } else if(jaso[1]=='ㅝ') {
+      } else if(jung=='ㅝ') {
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;  
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],13, 0);
-      } else if(jaso[1]=='ㅕ') {          
+      } else if(jung=='ㅕ') {          
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;        
         stem = stem.substring(0,index)+MorphUtil.makeChar(chrs[index],20, 0);          
-      } else if(jaso[1]=='ㅐ') {
+      } else if(jung=='ㅐ') {
         pomi = MorphUtil.replaceJongsung('어',chrs[index])+pomi;
         stem = stem.substring(0,index);
-      } else if(jaso[1]=='ㅒ') {
+      } else if(jung=='ㅒ') {
         pomi = MorphUtil.replaceJongsung('애',chrs[index])+pomi;  
         stem = stem.substring(0,index);
       } else {
@@ -108,14 +109,12 @@ class EomiUtil {
       }
       setPomiResult(results,stem,pomi);        
       if(chrs[index]!='시'&&chrs[index]!='으') return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);        
     }
 
-    char[] nChrs = null;
-    if(index>0) nChrs = MorphUtil.decompose(chrs[index-1]);
-    else nChrs = new char[2];
+    // 앞 음절에 받침이 없다면 (앞 음절이 없는 경우 포함)
+    boolean openBefore = index==0 || MorphUtil.isOpenSyllable(chrs[index-1]);
 
-    if(nChrs.length==2&&chrs[index]=='시'&&(chrs.length<=index+1||
+    if(openBefore&&chrs[index]=='시'&&(chrs.length<=index+1||
         (chrs.length>index+1&&chrs[index+1]!='셨'))) {
       if (DictionaryUtil.hasWord(results[0])) {
         return results;  //'시'가 포함된 단어가 있다. 성가시다/도시다/들쑤시다 
@@ -123,12 +122,11 @@ class EomiUtil {
       pomi = chrs[index]+pomi;  
       setPomiResult(results,stem.substring(0,index),pomi);      
       if(--index==0||chrs[index]!='으') return results; // 다음이거나 선어말어미가 없다면...        
-      jaso = MorphUtil.decompose(chrs[index]);
     }
     
-    if(index>0) nChrs = MorphUtil.decompose(chrs[index-1]);
-    else nChrs = new char[2];
-    if(chrs.length>index+1&&nChrs.length==3&&(chrs[index+1]=='셨'||chrs[index+1]=='시')&&chrs[index]=='으') {
+    // 앞 음절에 받침이 있다면
+    boolean closedBefore = index>0 && MorphUtil.jongseong(chrs[index-1])!=0;
+    if(chrs.length>index+1&&closedBefore&&(chrs[index+1]=='셨'||chrs[index+1]=='시')&&chrs[index]=='으') {
       pomi = chrs[index]+pomi;  
       setPomiResult(results,stem.substring(0,index),pomi);    
     }
@@ -172,27 +170,27 @@ class EomiUtil {
     }
     
     char estem = stem.charAt(strlen-1);
-    char[] chrs = MorphUtil.decompose(estem);
-    if (chrs.length == 1) {
+    if (!MorphUtil.isSyllable(estem)) {
       return null; // 한글이 아니라면...
     }
+    char cho = MorphUtil.choseong(estem);
+    char jung = MorphUtil.jungseong(estem);
+    char jong = MorphUtil.jongseong(estem);
 
-    if (chrs.length == 3 &&
-        (chrs[2] == 'ㄴ' || chrs[2] == 'ㄹ' || chrs[2] == 'ㅁ' || chrs[2] == 'ㅂ') &&
-        EomiUtil.IsNLMBSyl(estem,chrs[2]) &&
-        combineAndEomiCheck(chrs[2], end)) {    
+    if ((jong == 'ㄴ' || jong == 'ㄹ' || jong == 'ㅁ' || jong == 'ㅂ') &&
+        EomiUtil.IsNLMBSyl(estem,jong) &&
+        combineAndEomiCheck(jong, end)) {    
       String strs[] = new String[2];
-      strs[1] = Character.toString(chrs[2]);
+      strs[1] = Character.toString(jong);
       if (end.length() > 0) strs[1] += end;
       
    	  strs[0] = stem.substring(0,strlen-1) + MorphUtil.makeChar(estem, 0);  
    	  return strs;
-    } else if (chrs.length==3 && 
-               chrs[2]=='ㄹ' && 
+    } else if (jong=='ㄹ' && 
                DictionaryUtil.hasVerb(stem) && 
-               combineAndEomiCheck(chrs[2], end)) {
+               combineAndEomiCheck(jong, end)) {
       String strs[] = new String[2];
-      strs[1] = Character.toString(chrs[2]);
+      strs[1] = Character.toString(jong);
       if (end.length() > 0) strs[1] += end;
       strs[0] = stem; // "만들 때와는"에서 "만들"과 같은 경우
       return strs;
@@ -200,11 +198,11 @@ class EomiUtil {
       return new String[] { stem.substring(0,strlen-1)+"하", "어"+end }; 
     } else if (estem == '히' && DictionaryUtil.existEomi("이"+end)) {      
       return new String[] { stem.substring(0,strlen-1)+"하", "이"+end };      
-    } else if (chrs[0] != 'ㅇ' &&
-              (chrs[1] == 'ㅏ' || chrs[1] == 'ㅓ' || chrs[1] == 'ㅔ' || chrs[1] == 'ㅐ') &&
-              (chrs.length == 2 || SyllableFeatures.hasFeature(estem, SyllableFeatures.YNPAH)) &&
+    } else if (cho != 'ㅇ' &&
+              (jung == 'ㅏ' || jung == 'ㅓ' || jung == 'ㅔ' || jung == 'ㅐ') &&
+              (jong == 0 || SyllableFeatures.hasFeature(estem, SyllableFeatures.YNPAH)) &&
               combineAndEomiCheck('어', end)) {        
-      if (chrs.length == 2) {
+      if (jong == 0) {
         return new String[] { stem, "어"+end };
       } else {
         return new String[] { stem, end };
@@ -220,8 +218,8 @@ class EomiUtil {
           stem.substring(0,stem.length()-1)+"리",
                     "어"+end
       };      
-    } else if ((chrs.length == 2) &&
-               (chrs[1] == 'ㅘ' || chrs[1] == 'ㅙ' || chrs[1] == 'ㅝ' || chrs[1] == 'ㅕ' || chrs[1] == 'ㅐ' || chrs[1] == 'ㅒ') &&
+    } else if ((jong == 0) &&
+               (jung == 'ㅘ' || jung == 'ㅙ' || jung == 'ㅝ' || jung == 'ㅕ' || jung == 'ㅐ' || jung == 'ㅒ') &&
                combineAndEomiCheck('어', end)) {    
   
       StringBuilder sb = new StringBuilder();
@@ -230,7 +228,7 @@ class EomiUtil {
         sb.append(stem, 0, strlen-1);
       }
       
-      switch (chrs[1]) {
+      switch (jung) {
         case 'ㅘ': sb.append(MorphUtil.makeChar(estem, 8, 0));
                  sb.append(MorphUtil.replaceJongsung('아', estem));
                  break;
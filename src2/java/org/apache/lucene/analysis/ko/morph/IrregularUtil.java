@@ -18,321 +18,269 @@ package org.apache.lucene.analysis.ko.morph;
  */
 
 import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
-import org.apache.lucene.analysis.ko.dic.WordEntry;
+import org.apache.lucene.analysis.ko.dic.WordClass;
 
 /**
  * 
  * 동사의 불규칙 변형을 처리하는 Utility Class
+ * <p>
+ * 불규칙 활용의 원형 복원 규칙({@link Rule})은 어미 첫음절의 종류와 어간이 '오/우'로 끝나는지에 따라
+ * 미리 만든 표에서 찾는다. 복원한 원형은 재사용하는 버퍼에서 사전을 찾으므로, 
+ * 원형을 찾은 경우에만 String을 만든다.
  */
 class IrregularUtil {
   private IrregularUtil() {}
   
-  static String[] restoreIrregularVerb(String start, String end) {
-
-    if(end==null) end="";
-    char[] jasos = new char[0];    
-
-    if(end.length()>0) jasos = MorphUtil.decompose(end.charAt(0));
-
-    if(end.startsWith("ㄴ") || 'ㄴ'==jasos[0]) {      
-      String[] irrs = restoreBIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreHIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreELIrregular(start,end);
-      if(irrs!=null) return irrs;        
-    }else if(end.startsWith("ㄹ")) {      
-      String[] irrs = restoreBIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreHIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreELIrregular(start,end);
-      if(irrs!=null) return irrs;      
-    }else if(end.startsWith("ㅁ")) {      
-      String[] irrs = restoreBIrregular(start,end);
-      if(irrs!=null) return irrs;
-      irrs = restoreHIrregular(start,end);
-      if(irrs!=null) return irrs;        
-    }else if(end.startsWith("ㅂ")) {      
-      String[] irrs = restoreBIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreHIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreELIrregular(start,end);
-      if(irrs!=null) return irrs;          
-    }else if(start.endsWith("우")||start.endsWith("오")) {      
-      String[] irrs = restoreBIrregular(start,end);
-      if(irrs!=null) return irrs;        
-    }else if(end.startsWith("오")) {      
-      String[] irrs = restoreBIrregular(start,end);
-      if(irrs!=null) return irrs;  
-    }else if(end.startsWith("시")) {
-      String[] irrs = restoreBIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreELIrregular(start,end);
-      if(irrs!=null) return irrs;        
-//    }else if(end.startsWith("으")) {      
-//      String[] irrs = restoreBIrregular(start,end);
-//      if(irrs!=null) return irrs;        
-    }else if(jasos.length>1&&jasos[0]=='ㅇ'&&(jasos[1]=='ㅓ'||jasos[1]=='ㅏ')) {      
-      String[] irrs = restoreDIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreSIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreLIrregular(start,end);
-      if(irrs!=null) return irrs;    
-      irrs = restoreHIrregular(start,end);
-      if(irrs!=null) return irrs;  
-      irrs = restoreUIrregular(start,end);
-      if(irrs!=null) return irrs;    
-      irrs = restoreRUIrregular(start,end);
-      if(irrs!=null) return irrs;            
-    }else if(jasos.length>1&&jasos[0]=='ㅇ'&&jasos[1]=='ㅡ') {      
-      String[] irrs = restoreDIrregular(start,end);
-      if(irrs!=null) return irrs;    
-      irrs = restoreSIrregular(start,end);
-      if(irrs!=null) return irrs;        
-    }else if(("가".equals(start)&&"거라".equals(end))||
-        ("오".equals(start)&&"너라".equals(end))) {      
-      return new String[]{start,end};
+  // 어미 첫음절의 종류
+  private static final int END_OTHER = 0;
+  private static final int END_N = 1;  // 'ㄴ', 초성이 'ㄴ'인 음절
+  private static final int END_L = 2;  // 'ㄹ'
+  private static final int END_M = 3;  // 'ㅁ'
+  private static final int END_B = 4;  // 'ㅂ'
+  private static final int END_O = 5;  // '오'
+  private static final int END_SI = 6; // '시'
+  private static final int END_A = 7;  // '아/어'로 시작하는 음절
+  private static final int END_EU = 8; // '으'로 시작하는 음절
+  private static final int NUM_END_CLASSES = 9;
+  
+  /** 어미 첫글자의 종류 */
+  private static final byte END_CLASSES[] = new byte[Character.MAX_VALUE + 1];
+  static {
+    END_CLASSES['ㄴ'] = END_N;
+    END_CLASSES['ㄹ'] = END_L;
+    END_CLASSES['ㅁ'] = END_M;
+    END_CLASSES['ㅂ'] = END_B;
+    for (char ch = 0xAC00; ch <= 0xD7A3; ch++) {
+      char cho = MorphUtil.choseong(ch);
+      char jung = MorphUtil.jungseong(ch);
+      if (cho == 'ㄴ') {
+        END_CLASSES[ch] = END_N;
+      } else if (ch == '오') {
+        END_CLASSES[ch] = END_O;
+      } else if (ch == '시') {
+        END_CLASSES[ch] = END_SI;
+      } else if (cho == 'ㅇ' && (jung == 'ㅓ' || jung == 'ㅏ')) {
+        END_CLASSES[ch] = END_A;
+      } else if (cho == 'ㅇ' && jung == 'ㅡ') {
+        END_CLASSES[ch] = END_EU;
+      }
     }
-    
-    return null;
   }
   
-  /**
-   * ㅂ 불규칙 원형을 복원한다. (돕다, 곱다)
-   * @param start start text
-   * @param end end text
+  /** 
+   * 적용할 규칙 (순서대로): [어미 첫음절의 종류][어간이 '오/우'로 끝나면 1]. 
+   * 'ㄴ/ㄹ/ㅁ/ㅂ'으로 시작하는 어미는 어간과 상관없이 같은 규칙을 적용하고,
+   * 다른 어미는 어간이 '오/우'로 끝나면 ㅂ 불규칙만 적용한다.
    */
-  private static String[] restoreBIrregular(String start, String end) {
-
-    if(start==null||"".equals(start)||end==null) return null;
-      
-    if(start.length()<2) return null;
-      
-    if(!(start.endsWith("오")||start.endsWith("우"))) return null;
-      
-    char convEnd = MorphUtil.makeChar(end.charAt(0), 0);
-    if("ㅁ".equals(end)||"ㄴ".equals(end)||"ㄹ".equals(end)||
-        convEnd=='아'||convEnd=='어') { // 도우(돕), 고오(곱), 스러우(스럽) 등으로 변형되므로 반드시 2자 이상임
-      
-      char ch = start.charAt(start.length()-2);
-      ch = MorphUtil.makeChar(ch, 17);
-    
-      if(start.length()>2) 
-        start = arrayToString(new String[]{start.substring(0,start.length()-2),Character.toString(ch)});
-      else
-        start = Character.toString(ch);    
-
-      WordEntry entry = DictionaryUtil.getVerb(start);
-      if (entry != null && entry.getVerbType() == WordEntry.VERB_TYPE_BIUP)
-        return new String[]{start,end};      
-    }
-
-    return null;     
+  private static final Rule RULES[][][] = new Rule[NUM_END_CLASSES][][];
+  static {
+    Rule biup[] = { Rule.BIUP };
+    RULES[END_OTHER] = new Rule[][] { {}, biup };
+    RULES[END_N] = same(Rule.BIUP, Rule.HIOOT, Rule.LIUL);
+    RULES[END_L] = same(Rule.BIUP, Rule.HIOOT, Rule.LIUL);
+    RULES[END_M] = same(Rule.BIUP, Rule.HIOOT);
+    RULES[END_B] = same(Rule.BIUP, Rule.HIOOT, Rule.LIUL);
+    RULES[END_O] = new Rule[][] { biup, biup };
+    RULES[END_SI] = new Rule[][] { { Rule.BIUP, Rule.LIUL }, biup };
+    RULES[END_A] = new Rule[][] { { Rule.DI, Rule.SIUT, Rule.LOO, Rule.HIOOT, Rule.EU, Rule.RU }, biup };
+    RULES[END_EU] = new Rule[][] { { Rule.DI, Rule.SIUT }, biup };
   }
   
-  private static String arrayToString(String[] strs) {
-    StringBuffer sb = new StringBuffer();
-    for(String str:strs) {
-      sb.append(str);
-    }
-    return sb.toString();
+  private static Rule[][] same(Rule... rules) {
+    return new Rule[][] { rules, rules };
   }
   
-  /**
-   * ㄷ 불규칙 원형을 복원한다. (깨닫다, 묻다)
-   * @param start start text
-   * @param end end text
-   */
-  private static String[] restoreDIrregular(String start, String end) {
-    if(start==null||"".equals(start)) return null;
-    
-    char ch = start.charAt(start.length()-1);
-    char[] jasos = MorphUtil.decompose(ch);
-    if(jasos.length!=3||jasos[2]!='ㄹ') return null;
-    
-    ch = MorphUtil.makeChar(ch, 7);
-    if(start.length()>1) 
-      start = arrayToString(new String[]{start.substring(0,start.length()-1),Character.toString(ch)});
-    else
-      start = Character.toString(ch);
-    
-    WordEntry entry = DictionaryUtil.getVerb(start);
-    if (entry != null && entry.getVerbType() == WordEntry.VERB_TYPE_DI)
-      return new String[]{start,end};
-    
-    return null;
-  }
+  /** 복원한 원형을 만드는 버퍼 */
+  private static final ThreadLocal<StringBuilder> scratch = new ThreadLocal<StringBuilder>() {
+    @Override
+    protected StringBuilder initialValue() {
+      return new StringBuilder();
+    }
+  };
   
-  /**
-   * ㅅ 불규칙 원형을 복원한다. (긋다--그어)
-   * @param start start text
-   * @param end end text
-   */
-  private static String[] restoreSIrregular(String start, String end) {
-    if(start==null||"".equals(start)) return null;
-    
-    char ch = start.charAt(start.length()-1);
-    char[] jasos = MorphUtil.decompose(ch);
-    if(jasos.length!=2) return null;
-    
-    ch = MorphUtil.makeChar(ch, 19);
-    if(start.length()>1) 
-      start = start.substring(0,start.length()-1)+ch;
-    else
-      start = Character.toString(ch);
-    
-    WordEntry entry = DictionaryUtil.getVerb(start);
-    if (entry != null && entry.getVerbType() == WordEntry.VERB_TYPE_SIUT)
-      return new String[]{start,end};
-
-    return null;
-  }
-
-  /**
-   * 르 불규칙 원형을 복원한다. (흐르다-->흘러)
-   * "따르다"는 ㄹ불규칙이 아니지만.. 인 것처럼 처리한다.
-   * @param start start text
-   * @param end end text
-   */
-  private static String[] restoreLIrregular(String start, String end) {
+  static String[] restoreIrregularVerb(String start, String end) {
 
-    if(start.length()<2) return null;
+    if(end==null) end="";
     
-    char ch1 = start.charAt(start.length()-2);
-    char ch2 = start.charAt(start.length()-1);
+    int endClass = end.length()>0 ? END_CLASSES[end.charAt(0)] : END_OTHER;
+    char last = start.length()>0 ? start.charAt(start.length()-1) : 0;
+    int wo = last=='오'||last=='우' ? 1 : 0;
     
-    char[] jasos1 = MorphUtil.decompose(ch1);
+    StringBuilder stem = scratch.get();
+    for (Rule rule : RULES[endClass][wo]) {
+      stem.setLength(0);
+      if (rule.restore(start, end, stem) && rule.accept(DictionaryUtil.getVerbClass(stem))) {
+        return new String[]{stem.toString(),end};
+      }
+    }
     
-    if(((jasos1.length==3&&jasos1[2]=='ㄹ')||jasos1.length==2)&&(ch2=='러'||ch2=='라')) {
-  
-      StringBuffer sb = new StringBuffer();
-      
-      ch1 = MorphUtil.makeChar(ch1, 0);
-      if(start.length()>2) 
-        sb.append(start.substring(0,start.length()-2)).append(ch1).append("르");
-      else
-        sb.append(Character.toString(ch1)).append("르");
-
-      WordEntry entry = DictionaryUtil.getVerb(sb.toString());
-      if (entry != null && entry.getVerbType() == WordEntry.VERB_TYPE_LOO)
-        return new String[]{sb.toString(),end};    
+    if(endClass==END_OTHER&&wo==0&&(("가".equals(start)&&"거라".equals(end))||
+        ("오".equals(start)&&"너라".equals(end)))) {      
+      return new String[]{start,end};
     }
     
     return null;
   }
   
   /**
-   * ㄹ불규칙 원형을 복원한다. (길다-->긴, 알다-->안, 만들다-->만드는)
-   * 어간의 끝소리인 ‘ㄹ’이 ‘ㄴ’, ‘ㄹ’, ‘ㅂ’, ‘오’, ‘시’ 앞에서 탈락하는 활용의 형식
-   * @param start start text
-   * @param end end text
+   * 불규칙 활용의 원형 복원 규칙: 어간(start)의 끝을 원형으로 바꾸고, 
+   * 사전에 그 불규칙 유형의 용언이 있으면 원형을 찾은 것이다.
    */
-  
-  private static String[] restoreELIrregular(String start, String end) {
-
-    if(start==null || start.length()==0 || end==null||end.length()==0) return null;
-       
-    char ch1 = end.charAt(0);   
-    char[] jasos1 = MorphUtil.decompose(ch1);
+  private enum Rule {
     
-    if(!(end.charAt(0)=='ㄴ'||end.charAt(0)=='ㄹ'||end.charAt(0)=='ㅂ'|| jasos1[0]=='ㄴ' ||         
-        end.charAt(0)=='오' || end.charAt(0)=='시')) return null;
-      
-    char convEnd = MorphUtil.makeChar(start.charAt(start.length()-1), 8);
-    start = start.substring(0,start.length()-1)+convEnd;
-
-    WordEntry entry = DictionaryUtil.getVerb(start);
-    if (entry!=null && entry.getVerbType() == WordEntry.VERB_TYPE_LIUL)
-      return new String[]{start,end};  
+    /** ㅂ 불규칙 원형을 복원한다. (돕다, 곱다) */
+    BIUP(WordClass.VERB_TYPE_BIUP) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        // 도우(돕), 고오(곱), 스러우(스럽) 등으로 변형되므로 반드시 2자 이상임
+        if(len<2||end.length()==0) return false;
+        if(!(start.endsWith("오")||start.endsWith("우"))) return false;
+        
+        char convEnd = MorphUtil.makeChar(end.charAt(0), 0);
+        if(!("ㅁ".equals(end)||"ㄴ".equals(end)||"ㄹ".equals(end)||convEnd=='아'||convEnd=='어')) return false;
+        
+        stem.append(start, 0, len-2).append(MorphUtil.makeChar(start.charAt(len-2), 17));
+        return true;
+      }
+    },
     
-    return null;
-  }
-  
-  /**
-   * 러 불규칙 원형을 복원한다. (이르다->이르러, 푸르다->푸르러)
-   * @param start start text
-   * @param end end text
-   */
-  private static String[] restoreRUIrregular(String start, String end) {
-
-    if(start.length()<2) return null;
+    /** ㄷ 불규칙 원형을 복원한다. (깨닫다, 묻다) */
+    DI(WordClass.VERB_TYPE_DI) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        if(len==0) return false;
+        
+        char ch = start.charAt(len-1);
+        if(MorphUtil.jongseong(ch)!='ㄹ') return false;
+        
+        stem.append(start, 0, len-1).append(MorphUtil.makeChar(ch, 7));
+        return true;
+      }
+    },
     
-    char ch1 = start.charAt(start.length()-1);
-    char ch2 = start.charAt(start.length()-2);
+    /** ㅅ 불규칙 원형을 복원한다. (긋다--그어) */
+    SIUT(WordClass.VERB_TYPE_SIUT) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        if(len==0) return false;
+        
+        char ch = start.charAt(len-1);
+        if(!MorphUtil.isOpenSyllable(ch)) return false;
+        
+        stem.append(start, 0, len-1).append(MorphUtil.makeChar(ch, 19));
+        return true;
+      }
+    },
     
-    char[] jasos1 = MorphUtil.decompose(ch1);
-    char[] jasos2 = MorphUtil.decompose(ch2);
-    if(jasos1[0]!='ㄹ'||jasos2[0]!='ㄹ') return null;
+    /**
+     * 르 불규칙 원형을 복원한다. (흐르다-->흘러)
+     * "따르다"는 ㄹ불규칙이 아니지만.. 인 것처럼 처리한다.
+     */
+    LOO(WordClass.VERB_TYPE_LOO) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        if(len<2) return false;
+        
+        char ch1 = start.charAt(len-2);
+        char ch2 = start.charAt(len-1);
+        if(!((MorphUtil.jongseong(ch1)=='ㄹ'||MorphUtil.isOpenSyllable(ch1))&&(ch2=='러'||ch2=='라'))) return false;
+        
+        stem.append(start, 0, len-2).append(MorphUtil.makeChar(ch1, 0)).append('르');
+        return true;
+      }
+    },
     
-    ch2 = MorphUtil.makeChar(ch2, 0);
-    if(start.length()>2) 
-      start = start.substring(0,start.length()-1);
-    else
-      start = Character.toString(ch2);
-
-    WordEntry entry = DictionaryUtil.getVerb(start);
-    if (entry != null && entry.getVerbType() == WordEntry.VERB_TYPE_RU)
-      return new String[]{start,end};
+    /**
+     * ㄹ불규칙 원형을 복원한다. (길다-->긴, 알다-->안, 만들다-->만드는)
+     * 어간의 끝소리인 ‘ㄹ’이 ‘ㄴ’, ‘ㄹ’, ‘ㅂ’, ‘오’, ‘시’ 앞에서 탈락하는 활용의 형식
+     */
+    LIUL(WordClass.VERB_TYPE_LIUL) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        if(len==0||end.length()==0) return false;
+        
+        char ch = end.charAt(0);
+        if(!(ch=='ㄴ'||ch=='ㄹ'||ch=='ㅂ'||MorphUtil.choseong(ch)=='ㄴ'||ch=='오'||ch=='시')) return false;
+        
+        stem.append(start, 0, len-1).append(MorphUtil.makeChar(start.charAt(len-1), 8));
+        return true;
+      }
+    },
     
-    return null;
-  }
-  
-  /**
-   * ㅎ 탈락 원형을 복원한다. (까맣다-->까만,까매서)
-   * @param start start text
-   * @param end end text
-   */
-  private static String[] restoreHIrregular(String start, String end) {
-    if(start==null||"".equals(start)||end==null||"".equals(end)) return null;
-    char ch1 = end.charAt(0);
-    char ch2 = start.charAt(start.length()-1);
+    /** 러 불규칙 원형을 복원한다. (이르다->이르러, 푸르다->푸르러) */
+    RU(WordClass.VERB_TYPE_RU) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        if(len<2) return false;
+        
+        char ch1 = start.charAt(len-1);
+        char ch2 = start.charAt(len-2);
+        if(MorphUtil.choseong(ch1)!='ㄹ'||MorphUtil.choseong(ch2)!='ㄹ') return false;
+        
+        if(len>2) 
+          stem.append(start, 0, len-1);
+        else
+          stem.append(MorphUtil.makeChar(ch2, 0));
+        return true;
+      }
+    },
+    
+    /** ㅎ 탈락 원형을 복원한다. (까맣다-->까만,까매서) */
+    HIOOT(WordClass.VERB_TYPE_HIOOT) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        if(len==0||end.length()==0) return false;
+        
+        char ch = start.charAt(len-1);
+        if(!MorphUtil.isSyllable(end.charAt(0))) {
+          ch = MorphUtil.makeChar(ch, 27);
+        }else {
+          if(!MorphUtil.isOpenSyllable(ch)||MorphUtil.jungseong(ch)!='ㅐ') return false;
+          ch = MorphUtil.makeChar(ch, 0, 27);
+        }
+        
+        stem.append(start, 0, len-1).append(ch);
+        return true;
+      }
+    },
     
-    char[] jasos1 = MorphUtil.decompose(ch1);
-    char[] jasos2 = MorphUtil.decompose(ch2);
+    /** 으 탈락 원형을 복원한다. (뜨다->더, 크다-커): 모든 용언 */
+    EU(-1) {
+      @Override
+      boolean restore(String start, String end, StringBuilder stem) {
+        final int len = start.length();
+        if(len==0) return false;
+        
+        char ch = start.charAt(len-1);
+        if(!(MorphUtil.isOpenSyllable(ch)&&MorphUtil.jungseong(ch)=='ㅓ')) return false;
+        
+        stem.append(start, 0, len-1).append(MorphUtil.makeChar(ch, 18, 0));
+        return true;
+      }
+    };
     
-    if(jasos1.length==1) {
-      ch2 = MorphUtil.makeChar(ch2, 27);
-    }else {
-      if(jasos2.length!=2||jasos2[1]!='ㅐ') return null;
-      ch2 = MorphUtil.makeChar(ch2, 0, 27);
+    /** 불규칙 유형 (WordClass.VERB_TYPE_*), 또는 모든 용언이면 -1 */
+    private final int verbType;
+    
+    private Rule(int verbType) {
+      this.verbType = verbType;
     }
-            
-    if(start.length()>1) 
-      start = start.substring(0,start.length()-1)+ch2;
-    else
-      start = Character.toString(ch2);
-
-    WordEntry entry = DictionaryUtil.getVerb(start);
-    if (entry != null && entry.getVerbType() == WordEntry.VERB_TYPE_HIOOT)
-      return new String[]{start,end};
     
-    return null;
-  }  
-
-  /**
-   * 으 탈락 원형을 복원한다. (뜨다->더, 크다-커)
-   * @param start start text
-   * @param end end text
-   */
-  private static String[] restoreUIrregular(String start, String end) {
-    if(start==null||"".equals(start)) return null;
-    char ch = start.charAt(start.length()-1);    
-    char[] jasos = MorphUtil.decompose(ch);
-    if(!(jasos.length==2&&jasos[1]=='ㅓ')) return null;
+    /** 
+     * 어간(start)과 어미(end)에 규칙이 적용되면, 복원한 원형을 stem에 쓰고 true를 반환한다.
+     */
+    abstract boolean restore(String start, String end, StringBuilder stem);
     
-    ch = MorphUtil.makeChar(ch, 18,0);
-
-    if(start.length()>1) 
-      start = start.substring(0,start.length()-1)+ch;
-    else
-      start = Character.toString(ch);
-
-    WordEntry entry = DictionaryUtil.getVerb(start);
-    if(entry!=null)  return new String[]{start,end};
-  
-    return null;
-  }  
+    /** 복원한 원형의 사전 정보(없으면 null)가 이 규칙의 용언이면 true */
+    boolean accept(WordClass entry) {
+      return entry != null && (verbType < 0 || entry.getVerbType() == verbType);
+    }
+  }
 }
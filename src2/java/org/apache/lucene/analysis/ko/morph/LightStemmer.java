@@ -0,0 +1,106 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
+import org.apache.lucene.analysis.ko.dic.SuffixMatcher;
+import org.apache.lucene.analysis.ko.dic.SyllableFeatures;
+
+/**
+ * Strips the josa (or else the eomi) at the end of a word, without morphological analysis.
+ * <p>
+ * The longest josa of josa.dic that can follow the rest of the word is removed, with the
+ * same syllable rules as {@link MorphAnalyzer}. If there is none, the longest eomi of
+ * eomi.dic is removed. There are no candidates and no scores: the cost is one dictionary
+ * lookup (words of the dictionary are kept as they are) and two suffix matches per word.
+ * <p>
+ * Not thread-safe: it reuses its buffers, so use one instance per stream.
+ */
+public final class LightStemmer {
+
+  /** Default minimum length of a stem */
+  public static final int DEFAULT_MIN_STEM_LENGTH = 2;
+
+  private final int minStemLength;
+
+  private int josas[] = null;
+  private int eomis[] = null;
+
+  public LightStemmer() {
+    this(DEFAULT_MIN_STEM_LENGTH);
+  }
+
+  /**
+   * @param minStemLength  a suffix is only removed if at least this many characters are left.
+   */
+  public LightStemmer(int minStemLength) {
+    if (minStemLength < 1) {
+      throw new IllegalArgumentException("minStemLength must be at least 1: " + minStemLength);
+    }
+    this.minStemLength = minStemLength;
+  }
+
+  /**
+   * Returns the length of the stem of the word (its length if nothing is removed).
+   */
+  public int stem(CharSequence word) {
+    final int len = word.length();
+    if (len <= minStemLength || DictionaryUtil.hasWord(word)) {
+      return len;
+    }
+
+    // 체언 + 조사: 가장 긴 조사를 분리한다.
+    josas = DictionaryUtil.matchJosa(word, josas);
+    int stem = len;
+    for (int i = len-1; i >= minStemLength; i--) {
+      int features = SyllableFeatures.features(word.charAt(i));
+      if (SyllableFeatures.hasFeature(features, SyllableFeatures.JOSA1)
+          && (josas[i] & SuffixMatcher.WORD) != 0 && canFollow(word.charAt(i-1), word, i)) {
+        stem = i;
+      }
+      if (!SyllableFeatures.hasFeature(features, SyllableFeatures.JOSA2) || josas[i] == 0) {
+        break;
+      }
+    }
+    if (stem < len) {
+      return stem;
+    }
+
+    // 용언 + 어미: 가장 긴 어미를 분리한다.
+    eomis = DictionaryUtil.matchEomi(word, eomis);
+    for (int i = len-1; i >= minStemLength; i--) {
+      if ((eomis[i] & SuffixMatcher.WORD) != 0) {
+        stem = i;
+      }
+      if (!SyllableFeatures.hasFeature(word.charAt(i), SyllableFeatures.EOMI2) || eomis[i] == 0) {
+        break;
+      }
+    }
+    return stem;
+  }
+
+  /** true if the josa starting at start can follow the syllable last (see MorphAnalyzer.analysisWithJosa) */
+  private static boolean canFollow(char last, CharSequence word, int start) {
+    if (start != word.length()-1) {
+      return true;
+    }
+    char josa = word.charAt(start);
+    return !(MorphUtil.jongseong(last) != 0 && ConstraintUtil.isTwoJosa(josa))
+        && !(MorphUtil.isOpenSyllable(last) && ConstraintUtil.isThreeJosa(josa));
+  }
+}
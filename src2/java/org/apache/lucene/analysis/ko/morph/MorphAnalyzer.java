@@ -22,18 +22,102 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.lucene.analysis.ko.dic.CompoundEntry;
 import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
+import org.apache.lucene.analysis.ko.dic.SuffixMatcher;
 import org.apache.lucene.analysis.ko.dic.SyllableFeatures;
+import org.apache.lucene.analysis.ko.dic.WordClass;
 import org.apache.lucene.analysis.ko.dic.WordEntry;
 
 public class MorphAnalyzer {
   
+  private static final AnalysisOutputComparator<AnalysisOutput> COMPARATOR = new AnalysisOutputComparator<AnalysisOutput>();
+  
   private final CompoundNounAnalyzer cnAnalyzer;  
   
+  private final boolean nounOnly;
+  
+  private final boolean fastPath;
+  
+  private static volatile boolean countAnalyses = false;
+  private static final AtomicLong analyses = new AtomicLong();
+  private static final AtomicLong fastPathHits = new AtomicLong();
+  private static final AtomicLong compoundNouns = new AtomicLong();
+  private static final AtomicLong compoundNounNanos = new AtomicLong();
+  
   public MorphAnalyzer(boolean exactMatch) {
+    this(exactMatch, false);
+  }
+  
+  public MorphAnalyzer(boolean exactMatch, boolean nounOnly) {
+    this(exactMatch, nounOnly, false);
+  }
+  
+  /**
+   * @param exactMatch  Whether the original compound noun is returned or not.
+   * @param nounOnly  Whether only the noun outputs are used. The noun outputs are the same, but the
+   *   patterns that can only find verbs (irregular verbs, PTN_VMCM, PTN_VMXM) are tried after the nouns,
+   *   only while a verb could change them, and only until one verb is found. So the verb outputs may
+   *   not be all the verb analyses of the word, and the first output may be a noun where it would
+   *   be a verb: this mode can not choose the best analysis of a word.
+   * @param fastPath  Whether a word that can only be a two-syllable simple noun of the dictionary, 
+   *   alone or with a josa, is returned as that noun without the other analyses (see {@link #analyzeFast}).
+   *   The nouns are those of the full analysis, except a noun + '이' + eomi (e.g. '사랑같' of '사랑같인'),
+   *   which is not returned, and the verb outputs of such a word are not returned either.
+   */
+  public MorphAnalyzer(boolean exactMatch, boolean nounOnly, boolean fastPath) {
     cnAnalyzer = new CompoundNounAnalyzer(exactMatch);
+    this.nounOnly = nounOnly;
+    this.fastPath = fastPath;
+  }
+  
+  /** true if only the noun outputs are used */
+  public boolean isNounOnly() {
+    return nounOnly;
+  }
+  
+  /** true if dictionary nouns (with a josa) are returned without the other analyses */
+  public boolean isFastPath() {
+    return fastPath;
+  }
+  
+  /** 
+   * Starts or stops counting the analyses, the ones that took the fast path, and the
+   * calls and time of decompounding nouns.
+   * @see org.apache.lucene.analysis.ko.AnalysisMetrics
+   */
+  public static void setCountAnalyses(boolean count) {
+    countAnalyses = count;
+  }
+  
+  /** number of words analyzed since the last reset, while counting */
+  public static long getAnalysisCount() {
+    return analyses.get();
+  }
+  
+  /** number of words resolved by the fast path since the last reset, while counting */
+  public static long getFastPathCount() {
+    return fastPathHits.get();
+  }
+  
+  /** number of nouns decompounded since the last reset, while counting */
+  public static long getCompoundNounCount() {
+    return compoundNouns.get();
+  }
+  
+  /** time spent decompounding nouns since the last reset, while counting, in nanoseconds */
+  public static long getCompoundNounNanos() {
+    return compoundNounNanos.get();
+  }
+  
+  /** resets the counts of analyses to 0 */
+  public static void resetAnalysisCounts() {
+    analyses.set(0);
+    fastPathHits.set(0);
+    compoundNouns.set(0);
+    compoundNounNanos.set(0);
   }
   
   /**
@@ -43,14 +127,30 @@ public class MorphAnalyzer {
    */
   public List<AnalysisOutput> analyze(String input) {    
 
+    if(countAnalyses) analyses.incrementAndGet();
+    
+    if(fastPath) {
+      List<AnalysisOutput> fast = analyzeFast(input);
+      if(fast!=null) {
+        if(countAnalyses) fastPathHits.incrementAndGet();
+        return fast;
+      }
+    }
+    
     List<AnalysisOutput> candidates = new ArrayList<AnalysisOutput>();        
     boolean isVerbOnly = MorphUtil.hasVerbOnly(input);
 
-    analysisByRule(input, candidates);    
+    List<VerbCandidate> verbs = nounOnly ? new ArrayList<VerbCandidate>() : null;
+    analysisByRule(input, candidates, verbs);    
+    
+    // 후보가 없으면 단일어 분석이 달라진다.
+    if(verbs!=null&&candidates.size()==0) analysisVerbs(verbs, candidates);
     
     if(!isVerbOnly||candidates.size()==0) addSingleWord(input,candidates);
+    
+    if(verbs!=null&&needsVerb(candidates)) analysisVerbs(verbs, candidates);
   
-    Collections.sort(candidates,new AnalysisOutputComparator<AnalysisOutput>());
+    Collections.sort(candidates,COMPARATOR);
     
     // 복합명사 분해여부 결정하여 분해
     boolean changed = false;
@@ -76,7 +176,7 @@ public class MorphAnalyzer {
       filterInCorrect(candidates);
     
     if(changed) {
-      Collections.sort(candidates,new AnalysisOutputComparator<AnalysisOutput>());  
+      Collections.sort(candidates,COMPARATOR);  
     }
 
     List<AnalysisOutput> results = new ArrayList<AnalysisOutput>();  
@@ -166,6 +266,59 @@ public class MorphAnalyzer {
     return results;
   }
   
+  /**
+   * 사전에 있는 두 글자의 단일명사(PTN_N), 또는 두 글자의 명사 + 조사(PTN_NJ)로만 나눌 수 있으면 
+   * 그 분석결과만 돌려준다. 아니면 null을 돌려준다.
+   * 세 글자 이상의 명사는 복합명사로 분해될 수 있고, 조사로 나눌 수 있는 위치가 둘 이상이거나 
+   * 단어 전체가 사전에 있으면 다른 명사 분석결과가 있으므로 전체 분석을 한다.
+   * 용언, 명사+'이'+어미(예: '사랑같인'의 '사랑같') 같은 다른 분석결과는 찾지 않는다.
+   */
+  private List<AnalysisOutput> analyzeFast(String input) {
+    final int len = input.length();
+    if(len<2) return null;
+    
+    // analysisByRule()에서 조사로 나누는 위치는 두 글자 명사 다음뿐이어야 한다.
+    int josas[] = DictionaryUtil.matchJosa(input, null);
+    boolean josaAt2 = false;
+    for(int i=len-1;i>0;i--) {
+      int features = SyllableFeatures.features(input.charAt(i));
+      if(SyllableFeatures.hasFeature(features, SyllableFeatures.JOSA1) && (josas[i]&SuffixMatcher.WORD)!=0) {
+        if(i!=2) return null;
+        josaAt2 = true;
+      }
+      if(!SyllableFeatures.hasFeature(features, SyllableFeatures.JOSA2) || josas[i]==0) break;
+    }
+    
+    WordClass entry = DictionaryUtil.getWordClass(input.substring(0, 2));
+    if(entry==null||!onlyNoun(entry)||entry.isCompoundNoun()) return null;
+    
+    AnalysisOutput output = null;
+    if(len==2) {
+      output = new AnalysisOutput(input, null, null, PatternConstants.PTN_N);
+    } else if(josaAt2 && DictionaryUtil.getWordClass(input)==null) {
+      // 조사는 analysisWithJosa()와 같은 제약을 따른다.
+      char last = input.charAt(1);
+      if(len==3 && ((MorphUtil.jongseong(last)!=0 && ConstraintUtil.isTwoJosa(input.charAt(2))) ||
+          (MorphUtil.isOpenSyllable(last) && ConstraintUtil.isThreeJosa(input.charAt(2))))) return null;
+      // '-기', '-음' + 조사는 용언일 수 있다.
+      if(last=='기'||MorphUtil.jongseong(last)=='ㅁ') return null;
+      output = new AnalysisOutput(input.substring(0, 2), input.substring(2), null, PatternConstants.PTN_NJ);
+    }
+    if(output==null) return null;
+    
+    output.setPos(PatternConstants.POS_NOUN);
+    output.setScore(AnalysisOutput.SCORE_CORRECT);
+    output.setSource(input);
+    List<AnalysisOutput> results = new ArrayList<AnalysisOutput>(1);
+    results.add(output);
+    return results;
+  }
+  
+  /** true if the word can only be a noun */
+  private static boolean onlyNoun(WordClass entry) {
+    return entry.isNoun() && !entry.isVerb() && !entry.isAdverb();
+  }
+  
   /**
    * removed the candidate items when one more candidates in correct is found
    * @param candidates  analysis candidates
@@ -179,7 +332,11 @@ public class MorphAnalyzer {
     }    
   }
   
-  private void analysisByRule(String input, List<AnalysisOutput> candidates) {
+  /**
+   * @param verbs  if not null, the outputs of {@link #analysisWithEomi} to analyze later 
+   *   with the patterns that only find verbs (see {@link #analysisVerbs}).
+   */
+  private void analysisByRule(String input, List<AnalysisOutput> candidates, List<VerbCandidate> verbs) {
   
     boolean josaFlag = true;
     boolean eomiFlag = true;
@@ -188,25 +345,32 @@ public class MorphAnalyzer {
     
 //    boolean isVerbOnly = MorphUtil.hasVerbOnly(input);
     boolean isVerbOnly = false;
-    analysisWithEomi(input,"",candidates);
+    analysisWithEomi(input,"",candidates,verbs);
+    
+    // 조사/어미가 시작될 수 있는 위치를 한번에 찾는다.
+    int josas[] = DictionaryUtil.matchJosa(input, null);
+    int eomis[] = DictionaryUtil.matchEomi(input, null);
     
     for (int i = strlen-1; i > 0; i--) {
       
-      String stem = input.substring(0, i);
-      String eomi = input.substring(i);
-
-      char ch = eomi.charAt(0);    
-      if (!isVerbOnly && josaFlag && SyllableFeatures.hasFeature(ch, SyllableFeatures.JOSA1)) {        
-        analysisWithJosa(stem, eomi, candidates);
+      char ch = input.charAt(i);
+      int features = SyllableFeatures.features(ch);
+      if (!isVerbOnly && josaFlag && SyllableFeatures.hasFeature(features, SyllableFeatures.JOSA1) 
+          && (josas[i] & SuffixMatcher.WORD) != 0) {        
+        analysisWithJosa(input.substring(0, i), input.substring(i), candidates);
       }
       
-      if (eomiFlag) {      
-        analysisWithEomi(stem, eomi, candidates);
-        eomiFlag &= SyllableFeatures.hasFeature(ch, SyllableFeatures.EOMI2);
+      if (eomiFlag) {
+        // 어미의 끝부분이거나, '-여'로 시작하는 어미('하여')만 분리될 수 있다. 
+        if ((eomis[i] & SuffixMatcher.SUFFIX) != 0 || 
+            (ch == '여' && (i == strlen-1 || (eomis[i+1] & SuffixMatcher.SUFFIX) != 0))) {
+          analysisWithEomi(input.substring(0, i), input.substring(i), candidates, verbs);
+        }
+        eomiFlag &= SyllableFeatures.hasFeature(features, SyllableFeatures.EOMI2) && eomis[i] != 0;
       }      
       
       if (josaFlag) {
-        josaFlag &= SyllableFeatures.hasFeature(ch, SyllableFeatures.JOSA2);
+        josaFlag &= SyllableFeatures.hasFeature(features, SyllableFeatures.JOSA2) && josas[i] != 0;
       }
       
       if (!josaFlag && !eomiFlag) {
@@ -235,7 +399,7 @@ public class MorphAnalyzer {
     AnalysisOutput output = new AnalysisOutput(word, null, null, PatternConstants.PTN_N);
     output.setPos(PatternConstants.POS_NOUN);
 
-    WordEntry entry = DictionaryUtil.getWord(word);
+    WordClass entry = DictionaryUtil.getWordClass(word);
     if (entry != null) {
       if (entry.isCompoundNoun()) {
         candidates.add(0,output);
@@ -271,10 +435,10 @@ public class MorphAnalyzer {
   void analysisWithJosa(String stem, String end, List<AnalysisOutput> candidates) {
     if(stem==null||stem.length()==0) return;  
     
-    char[] chrs = MorphUtil.decompose(stem.charAt(stem.length()-1));
+    char last = stem.charAt(stem.length()-1);
     if(!DictionaryUtil.existJosa(end)||
-        (chrs.length==3 && end.length() == 1 && ConstraintUtil.isTwoJosa(end.charAt(0))) ||
-        (chrs.length==2 && (end.length() == 1 && ConstraintUtil.isThreeJosa(end.charAt(0)))||"".equals(end))) return; // 연결이 가능한 조사가 아니면...
+        (MorphUtil.jongseong(last)!=0 && end.length() == 1 && ConstraintUtil.isTwoJosa(end.charAt(0))) ||
+        (MorphUtil.isOpenSyllable(last) && (end.length() == 1 && ConstraintUtil.isThreeJosa(end.charAt(0)))||"".equals(end))) return; // 연결이 가능한 조사가 아니면...
 
     AnalysisOutput output = new AnalysisOutput(stem, end, null, PatternConstants.PTN_NJ);
     output.setPos(PatternConstants.POS_NOUN);
@@ -311,6 +475,10 @@ public class MorphAnalyzer {
    * @param candidates  candidates
    */
   void analysisWithEomi(String stem, String end, List<AnalysisOutput> candidates) {
+    analysisWithEomi(stem, end, candidates, null);
+  }
+  
+  private void analysisWithEomi(String stem, String end, List<AnalysisOutput> candidates, List<VerbCandidate> verbs) {
     
     String[] morphs = EomiUtil.splitEomi(stem, end);
     if(morphs==null) return; // 어미가 사전에 등록되어 있지 않다면....
@@ -320,8 +488,8 @@ public class MorphAnalyzer {
     AnalysisOutput o = new AnalysisOutput(pomis[0],null,morphs[1],PatternConstants.PTN_VM);
     o.setPomi(pomis[1]);
   
-    WordEntry entry = DictionaryUtil.getVerb(o.getStem());  
-    if(entry!=null&&!("을".equals(end)&& entry.getVerbType() == WordEntry.VERB_TYPE_LIUL)) {              
+    WordClass entry = DictionaryUtil.getVerbClass(o.getStem());  
+    if(entry!=null&&!("을".equals(end)&& entry.getVerbType() == WordClass.VERB_TYPE_LIUL)) {              
       AnalysisOutput output = o.clone();
       output.setScore(AnalysisOutput.SCORE_CORRECT);
       MorphUtil.buildPtnVM(output, candidates);
@@ -332,6 +500,26 @@ public class MorphAnalyzer {
         return;
     }
 
+    if(verbs==null) analysisIrregular(o, candidates);
+
+    if(VerbUtil.ananlysisNSM(o.clone(), candidates) ||
+        VerbUtil.ananlysisNSMXM(o.clone(), candidates) ||
+        // [체언 + '에서/에서부터' + '이' +  어미]
+        VerbUtil.ananlysisNJCM(o.clone(),candidates)) {
+      if(verbs!=null) verbs.add(new VerbCandidate(o, false));
+      return;
+    }
+    
+    if(verbs!=null) {
+      verbs.add(new VerbCandidate(o, true));
+      return;
+    }
+    
+    analysisVM(o, candidates);
+  }    
+  
+  /** 불규칙동사인 경우 */
+  private void analysisIrregular(AnalysisOutput o, List<AnalysisOutput> candidates) {
     String[] irrs = IrregularUtil.restoreIrregularVerb(o.getStem(), o.getPomi()==null?o.getEomi():o.getPomi());
 
     if(irrs!=null) { // 불규칙동사인 경우
@@ -348,18 +536,63 @@ public class MorphAnalyzer {
       MorphUtil.buildPtnVM(output, candidates);
 //        }        
     }
-
-    if(VerbUtil.ananlysisNSM(o.clone(), candidates)) return;
-    
-    if(VerbUtil.ananlysisNSMXM(o.clone(), candidates)) return;
-    
-    // [체언 + '에서/에서부터' + '이' +  어미]
-    if(VerbUtil.ananlysisNJCM(o.clone(),candidates)) return;      
-    
+  }
+  
+  /** 용언 + '음/기' + '이' + 어미 (PTN_VMCM), 용언 + '아/어' + 보조용언 + 어미 (PTN_VMXM) */
+  private void analysisVM(AnalysisOutput o, List<AnalysisOutput> candidates) {
     if(VerbUtil.analysisVMCM(o.clone(),candidates)) return;  
 
     VerbUtil.analysisVMXM(o.clone(), candidates);
-  }    
+  }
+  
+  /** an output of {@link #analysisWithEomi} whose verb analysis is postponed */
+  private static final class VerbCandidate {
+    final AnalysisOutput output;
+    /** true if no noun was found, so PTN_VMCM and PTN_VMXM are also tried */
+    final boolean patterns;
+    
+    VerbCandidate(AnalysisOutput output, boolean patterns) {
+      this.output = output;
+      this.patterns = patterns;
+    }
+  }
+  
+  /**
+   * 명사만 추출할 때, 미뤄둔 용언 분석을 용언이 하나 분석될 때까지 한다.
+   */
+  private void analysisVerbs(List<VerbCandidate> verbs, List<AnalysisOutput> candidates) {
+    int size = candidates.size();
+    for (int i = 0; i < verbs.size() && candidates.size() == size; i++) {
+      VerbCandidate verb = verbs.get(i);
+      analysisIrregular(verb.output, candidates);
+      if (verb.patterns && candidates.size() == size) {
+        analysisVM(verb.output, candidates);
+      }
+    }
+    verbs.clear();
+  }
+  
+  /**
+   * 명사만 추출할 때, 용언 분석이 명사 분석 결과를 바꿀 수 있는지 조사한다.
+   * 용언은 모두 {@link AnalysisOutput#SCORE_CORRECT} 이므로, 분석에 성공한 다른 후보가 있으면 
+   * 용언은 뒤에 정렬되는 복합명사(PTN_NJ 등)가 추출되지 않게 하는 것만 바꿀 수 있다.
+   */
+  private static boolean needsVerb(List<AnalysisOutput> candidates) {
+    boolean correct = false;
+    for (AnalysisOutput o : candidates) {
+      if (o.getPos() == PatternConstants.POS_VERB) {
+        return false;
+      }
+      if (o.getScore() == AnalysisOutput.SCORE_CORRECT) {
+        if (o.getPatn() < PatternConstants.PTN_VM && o.getPatn() != PatternConstants.PTN_N 
+            && o.getCNounList().size() > 0) {
+          return true;
+        }
+        correct = true;
+      }
+    }
+    return !correct;
+  }
   
   /**
    * 복합명사인지 조사하고, 복합명사이면 단위명사들을 찾는다.
@@ -371,7 +604,13 @@ public class MorphAnalyzer {
     if(o.getStem().length()<3) return false;
      
     
+    final boolean count = countAnalyses;
+    long start = count ? System.nanoTime() : 0;
     CompoundEntry results[] = cnAnalyzer.analyze(o.getStem());
+    if(count) {
+      compoundNouns.incrementAndGet();
+      compoundNounNanos.addAndGet(System.nanoTime() - start);
+    }
 
     boolean success = false;
        
@@ -424,7 +663,7 @@ public class MorphAnalyzer {
       if(!ConstraintUtil.canHaheCompound(cnouns.get(cnouns.size()-2).getWord())) return false;
     }else if(o.getPatn()==PatternConstants.PTN_NSM) {         
       if("내".equals(o.getVsfx())&&cnouns.get(cnouns.size()-1).getWord().length()!=1) {
-        WordEntry entry = DictionaryUtil.getWord(cnouns.get(cnouns.size()-1).getWord());
+        WordClass entry = DictionaryUtil.getWordClass(cnouns.get(cnouns.size()-1).getWord());
         if(entry!=null && !entry.hasNE()) return false;
 //      }else if("하".equals(o.getVsfx())&&cnouns.get(cnouns.size()-1).getWord().length()==1) { 
 //        // 짝사랑하다 와 같은 경우에 뒷글자가 1글자이면 제외
@@ -0,0 +1,110 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The analyzers used by {@link org.apache.lucene.analysis.ko.KoreanFilter}, for one configuration.
+ * <p>
+ * The analyzers keep no state between calls, so an engine is immutable and thread-safe:
+ * {@link #get(boolean, boolean, int, long)} returns the same instance for the same configuration, 
+ * and all the filters of all fields and threads share it. Per-stream state (window
+ * cache, hanja reading buffers, metrics) stays in the filter.
+ */
+public final class MorphEngine {
+  
+  private static final ConcurrentMap<String,MorphEngine> engines = new ConcurrentHashMap<String,MorphEngine>();
+  
+  // the word spacing analysis never matches compound nouns exactly: share its analyzer
+  private static final MorphAnalyzer SPACING_MORPH = new MorphAnalyzer(false);
+  
+  private final String config;
+  private final MorphAnalyzer morph;
+  private final MorphAnalyzer nounMorph;
+  private final CompoundNounAnalyzer compoundNoun;
+  private final WordSpaceAnalyzer wordSpace;
+  
+  private MorphEngine(String config, boolean exactMatch, boolean fastPath, int maxSpacingSteps, long maxSpacingNanos) {
+    this.config = config;
+    morph = exactMatch || fastPath ? new MorphAnalyzer(exactMatch, false, fastPath) : SPACING_MORPH;
+    nounMorph = new MorphAnalyzer(exactMatch, true, fastPath);
+    compoundNoun = new CompoundNounAnalyzer(exactMatch);
+    wordSpace = new WordSpaceAnalyzer(SPACING_MORPH, maxSpacingSteps, maxSpacingNanos);
+  }
+  
+  /**
+   * Returns the shared engine for a configuration, without the fast path of {@link MorphAnalyzer}.
+   * @see #get(boolean, boolean, int, long)
+   */
+  public static MorphEngine get(boolean exactMatch, int maxSpacingSteps, long maxSpacingNanos) {
+    return get(exactMatch, false, maxSpacingSteps, maxSpacingNanos);
+  }
+  
+  /**
+   * Returns the shared engine for a configuration.
+   * @param exactMatch  Whether the original compound noun is returned or not.
+   * @param fastPath  Whether two-syllable dictionary nouns (with a josa) skip the other analyses.
+   * @param maxSpacingSteps  maximum number of steps to split a token without spaces into words.
+   * @param maxSpacingNanos  maximum time to split a token without spaces into words, or 0 for no limit.
+   * @see WordSpaceAnalyzer#WordSpaceAnalyzer(MorphAnalyzer, int, long)
+   */
+  public static MorphEngine get(boolean exactMatch, boolean fastPath, int maxSpacingSteps, long maxSpacingNanos) {
+    String key = "exact=" + exactMatch + ",spacingSteps=" + maxSpacingSteps + ",spacingNanos=" + maxSpacingNanos;
+    if (fastPath) {
+      // only added when on, so the tables built before this option keep their configuration
+      key += ",fastPath=true";
+    }
+    MorphEngine engine = engines.get(key);
+    if (engine == null) {
+      engine = new MorphEngine(key, exactMatch, fastPath, maxSpacingSteps, maxSpacingNanos);
+      MorphEngine previous = engines.putIfAbsent(key, engine);
+      if (previous != null) {
+        engine = previous;
+      }
+    }
+    return engine;
+  }
+  
+  /** the configuration of this engine, as a string */
+  public String getConfig() {
+    return config;
+  }
+  
+  public MorphAnalyzer getMorphAnalyzer() {
+    return morph;
+  }
+  
+  /** 
+   * the analyzer for the filters that only extract nouns: its noun outputs are the same
+   * as {@link #getMorphAnalyzer()}, but it analyzes fewer verbs.
+   * @see MorphAnalyzer#MorphAnalyzer(boolean, boolean, boolean)
+   */
+  public MorphAnalyzer getNounMorphAnalyzer() {
+    return nounMorph;
+  }
+  
+  public CompoundNounAnalyzer getCompoundNounAnalyzer() {
+    return compoundNoun;
+  }
+  
+  public WordSpaceAnalyzer getWordSpaceAnalyzer() {
+    return wordSpace;
+  }
+}
@@ -44,31 +44,30 @@ class MorphUtil {
   private static final int JUNG_JONG = JUNGSEONG.length * JONGSEONG.length;
 
   
-  /**
-   * 한글 한글자를 초성/중성/종성의 배열로 만들어 반환한다.
-   * @param c the character to be decomposed
-   */
-  static char[] decompose(char c) {
-    char[] result = null;
-
-    if(c>0xD7A3||c<0xAC00) return new char[]{c};
-    
-    c -= 0xAC00;
-
-    char choseong = CHOSEONG[c/JUNG_JONG];
-    c = (char)(c % JUNG_JONG);
-    
-    char jungseong = JUNGSEONG[c/JONGSEONG.length];
-    
-    char jongseong = JONGSEONG[c%JONGSEONG.length];
-    
-    if(jongseong != 0) {
-      result = new char[] {choseong, jungseong, jongseong};
-    }else {
-      result = new char[] {choseong, jungseong};      
-    }
-    return result;
-  }  
+  /** true if the character is a hangul syllable (가-힣) */
+  static boolean isSyllable(char c) {
+    return c >= 0xAC00 && c <= 0xD7A3;
+  }
+  
+  /** 한글 한글자의 초성을 반환한다. (0 if not a hangul syllable) */
+  static char choseong(char c) {
+    return isSyllable(c) ? CHOSEONG[(c - 0xAC00) / JUNG_JONG] : 0;
+  }
+  
+  /** 한글 한글자의 중성을 반환한다. (0 if not a hangul syllable) */
+  static char jungseong(char c) {
+    return isSyllable(c) ? JUNGSEONG[(c - 0xAC00) % JUNG_JONG / JONGSEONG.length] : 0;
+  }
+  
+  /** 한글 한글자의 종성을 반환한다. (0 if there is none, or not a hangul syllable) */
+  static char jongseong(char c) {
+    return isSyllable(c) ? JONGSEONG[(c - 0xAC00) % JONGSEONG.length] : 0;
+  }
+  
+  /** true if the character is a hangul syllable without 종성 */
+  static boolean isOpenSyllable(char c) {
+    return isSyllable(c) && (c - 0xAC00) % JONGSEONG.length == 0;
+  }
   
   static char compound(int first, int middle, int last) {    
     return (char)(0xAC00 + first* JUNG_JONG + middle * JONGSEONG.length + last);
@@ -18,11 +18,13 @@ package org.apache.lucene.analysis.ko.morph;
  */
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.lucene.analysis.ko.dic.CompoundEntry;
 import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
 import org.apache.lucene.analysis.ko.dic.SyllableFeatures;
+import org.apache.lucene.analysis.ko.dic.WordClass;
 import org.apache.lucene.analysis.ko.dic.WordEntry;
 
 class NounUtil {
@@ -41,9 +43,7 @@ class NounUtil {
        
     if(strlen<2) return false;       
 
-    char[] chrs = MorphUtil.decompose(o.getStem().charAt(strlen-1));
-
-    if(o.getStem().charAt(strlen-1)!='기'&&!(chrs.length==3&&chrs[2]=='ㅁ')) return false;
+    if(o.getStem().charAt(strlen-1)!='기'&&MorphUtil.jongseong(o.getStem().charAt(strlen-1))!='ㅁ') return false;
 
     String start = o.getStem();
     String end = "";
@@ -66,7 +66,7 @@ class NounUtil {
     if(analysisNSMJ(o.clone(),candidates)) return true;
     if(analysisVMXMJ(o.clone(),candidates)) return true;
               
-    if(DictionaryUtil.getVerb(o.getStem())!=null) {
+    if(DictionaryUtil.hasVerb(o.getStem())) {
       o.setPos(PatternConstants.POS_VERB);
       o.setPatn(PatternConstants.PTN_VMJ);
       o.setScore(AnalysisOutput.SCORE_CORRECT);
@@ -91,7 +91,7 @@ class NounUtil {
       o.setElist(irrs[1],0);
     }
         
-    if(DictionaryUtil.getVerb(o.getStem())!=null) {
+    if(DictionaryUtil.hasVerb(o.getStem())) {
       o.setPatn(PatternConstants.PTN_VMJ);
       o.setPos(PatternConstants.POS_VERB);
       o.setScore(AnalysisOutput.SCORE_CORRECT);
@@ -131,7 +131,7 @@ class NounUtil {
         o.addElist(stomis[1]);
       }
         
-      if(DictionaryUtil.getVerb(o.getStem())!=null) {
+      if(DictionaryUtil.hasVerb(o.getStem())) {
         o.setPatn(PatternConstants.PTN_VMXMJ);
         o.setPos(PatternConstants.POS_VERB);
         o.setScore(AnalysisOutput.SCORE_CORRECT);
@@ -161,7 +161,7 @@ class NounUtil {
     o.setPatn(PatternConstants.PTN_NSMJ);
     o.setPos(PatternConstants.POS_NOUN);
       
-    WordEntry entry = DictionaryUtil.getWordExceptVerb(o.getStem());
+    WordClass entry = DictionaryUtil.getWordClassExceptVerb(o.getStem());
 
     if(entry!=null) {
       if(!entry.isNoun()) return false;
@@ -188,7 +188,7 @@ class NounUtil {
     o.setPatn(PatternConstants.PTN_NSMXMJ);
     o.setPos(PatternConstants.POS_NOUN);
       
-    WordEntry entry = DictionaryUtil.getWordExceptVerb(o.getStem());
+    WordClass entry = DictionaryUtil.getWordClassExceptVerb(o.getStem());
 
     if(entry!=null) {
       if(!entry.isNoun()) return false;
@@ -244,7 +244,7 @@ class NounUtil {
       if(cnoun.isCompoundNoun())
         output.setCNounList(cnoun.getCompounds());
       else
-        output.setCNounList(new ArrayList<CompoundEntry>()); // TODO: dont make all these lists
+        output.setCNounList(Collections.<CompoundEntry>emptyList());
       output.setScore(AnalysisOutput.SCORE_CORRECT);
     }
           
@@ -17,64 +17,74 @@ package org.apache.lucene.analysis.ko.morph;
  * limitations under the License.
  */
 
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
+import org.apache.lucene.analysis.ko.dic.WordClass;
 import org.apache.lucene.analysis.ko.dic.WordEntry;
 
 class VerbUtil {
   private VerbUtil() {}
 
-  private static final Map<String, String> verbSuffix = new HashMap<String, String>();
+  // 1-2음절의 단어들을 음절 code의 정렬된 표로 만들어 substring 없이 찾는다. (see #code)
   
-  private static final Map<String, String> XVerb = new HashMap<String, String>();
+  private static final int verbSuffix[] = codes(
+      "이","하","되","내", "스럽","시키","있","없","같","당하","만하","드리","받","짓");
   
-  private static final Map<String, String> wiAbbrevs = new HashMap<String, String>();
+  private static final int XVerb[] = codes("오","내","주","보","지","놓","하","가","오르","올리");
   
-  static {
-    String[] suffixs = {
-        "이","하","되","내", "스럽","시키","있","없","같","당하","만하","드리","받","짓"};
-    for(int i=0;i<suffixs.length;i++) verbSuffix.put(suffixs[i], suffixs[i]);
-    
-    String[] xverbs = {"오","내","주","보","지","놓","하","가","오르","올리"};
-    for(int i=0;i<xverbs.length;i++) XVerb.put(xverbs[i], xverbs[i]);
-    
-    String[] eomis = {"고","거나"}; // 이 축약이 일어나는 어미
-    for(int i=0;i<eomis.length;i++) wiAbbrevs.put(eomis[i], eomis[i]);
+  private static final int wiAbbrevs[] = codes("고","거나"); // 이 축약이 일어나는 어미
+  
+  private static int[] codes(String... words) {
+    int codes[] = new int[words.length];
+    for(int i=0;i<words.length;i++) {
+      assert words[i].length()==1||words[i].length()==2;
+      codes[i] = code(words[i], 0, words[i].length());
+    }
+    Arrays.sort(codes);
+    return codes;
   }
   
-  /**
-   * 어간이 용언화접미사로 끝나면 index 를 반환한다.  아니면 -1을 반환한다.
-   */
-  static int endsWithVerbSuffix(String stem) {
+  /** 1-2음절 s[start..end)의 code: 1음절이면 그 음절, 2음절이면 (첫음절 &lt;&lt; 16 | 둘째음절) */
+  private static int code(CharSequence s, int start, int end) {
+    return end-start==1 ? s.charAt(start) : (s.charAt(start) << 16) | s.charAt(start+1);
+  }
+  
+  /** 표에 있는 단어이면 true */
+  private static boolean contains(int table[], CharSequence word) {
+    int len = word==null ? 0 : word.length();
+    return (len==1||len==2) && Arrays.binarySearch(table, code(word, 0, len))>=0;
+  }
+  
+  /** 어간이 표에 있는 1-2음절로 끝나면 (긴 것부터) 그 index 를 반환한다.  아니면 -1을 반환한다. */
+  private static int endsWith(int table[], String stem) {
     int len = stem.length();
     if(len<2) return -1;
     int start = 2;
     if(len==2) start = 1;      
-    for(int i=start;i>0;i--) { // suffix 의 가장 긴 글자수가 2이다.
-      if(verbSuffix.get(stem.substring(len-i))!=null) return (len-i);
+    for(int i=start;i>0;i--) { // 가장 긴 글자수가 2이다.
+      if(Arrays.binarySearch(table, code(stem, len-i, len))>=0) return (len-i);
     }    
     return -1;
   }
+  
+  /**
+   * 어간이 용언화접미사로 끝나면 index 를 반환한다.  아니면 -1을 반환한다.
+   */
+  static int endsWithVerbSuffix(String stem) {
+    return endsWith(verbSuffix, stem);
+  }
    
   /**
    * 어간부에 보조용언 [하,되,오,내,주,지]가 있는지 조사한다.
    */
   static int endsWithXVerb(String stem) {
-    int len = stem.length();
-    if(len<2) return -1;
-    int start = 2;
-    if(len==2) start = 1;
-    for(int i=start;i>0;i--) { //xverbs 의 가장 긴 글자수는 2이다.
-      if(XVerb.get(stem.substring(len-i))!=null) return (len-i);
-    }
-    return -1;
+    return endsWith(XVerb, stem);
   }
    
   static boolean verbSuffix(String stem) {
-    return verbSuffix.get(stem)!=null;
+    return contains(verbSuffix, stem);
   }
    
   /**
@@ -123,13 +133,13 @@ class VerbUtil {
     if(o.getStem().endsWith("스러우")) o.setStem(o.getStem().substring(0,o.getStem().length()-3)+"스럽");
 
     int idxVbSfix = VerbUtil.endsWithVerbSuffix(o.getStem());
-    WordEntry entry = DictionaryUtil.getAllNoun(o.getStem());
+    WordClass entry = DictionaryUtil.getAllNounClass(o.getStem());
     
-    if(wiAbbrevs.get(o.getEomi())==null||entry==null) {
+    if(!contains(wiAbbrevs, o.getEomi())||entry==null) {
       if(idxVbSfix<1) return false;     
       o.setVsfx(o.getStem().substring(idxVbSfix));
       o.setStem(o.getStem().substring(0,idxVbSfix));
-      entry = DictionaryUtil.getAllNoun(o.getStem());
+      entry = DictionaryUtil.getAllNounClass(o.getStem());
     } else { // 이 축약인 경우
       o.setVsfx("이");
       o.setStem(o.getStem());
@@ -206,14 +216,14 @@ class VerbUtil {
      
     if(!o.getStem().endsWith("이")) return false;
      
-    char[] chrs = MorphUtil.decompose(o.getStem().charAt(strlen-2));
+    char jong = MorphUtil.jongseong(o.getStem().charAt(strlen-2));
     boolean success = false;
   
     if(strlen>2&&o.getStem().endsWith("기이")) {
       o.setStem(o.getStem().substring(0,strlen-2));
       o.addElist("기");     
       success = true;       
-    } else if(chrs.length>2&&chrs[2]=='ㅁ'){
+    } else if(jong=='ㅁ'){
       String[] eres = EomiUtil.splitEomi(o.getStem().substring(0,strlen-1), "");
       if(eres==null) return false;
       
@@ -229,7 +239,7 @@ class VerbUtil {
     if(success) {    
      
       o.addElist("이");
-      if(DictionaryUtil.getVerb(o.getStem())!=null) {
+      if(DictionaryUtil.hasVerb(o.getStem())) {
         o.setPos(PatternConstants.POS_VERB);
         o.setPatn(PatternConstants.PTN_VMCM);
         o.setScore(AnalysisOutput.SCORE_CORRECT);
@@ -274,7 +284,7 @@ class VerbUtil {
       o.addElist(stomis[1]);
     }
 
-    if(DictionaryUtil.getVerb(o.getStem())!=null) {
+    if(DictionaryUtil.hasVerb(o.getStem())) {
       o.setPos(PatternConstants.POS_VERB);
       o.setPatn(PatternConstants.PTN_VMXM);
       o.setScore(AnalysisOutput.SCORE_CORRECT);
@@ -77,7 +77,7 @@ class WSOutput  implements Cloneable {
   
   private void addCompounds(AnalysisOutput o) {
     
-    List<CompoundEntry> cnouns = o.getCNounList();
+    List<CompoundEntry> cnouns = new ArrayList<CompoundEntry>(o.getCNounList());
     String source = o.getSource();    
 
     for (int i = 0; i < cnouns.size() - 1; i++) {
@@ -129,6 +129,7 @@ class WSOutput  implements Cloneable {
     if (cnouns.size() == 1) { 
       cnouns.clear();
     }
+    o.setCNounList(cnouns);
   
     phrases.add(o);
   }
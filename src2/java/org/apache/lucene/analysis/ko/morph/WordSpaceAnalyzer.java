@@ -19,30 +19,104 @@ package org.apache.lucene.analysis.ko.morph;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.lucene.analysis.ko.dic.CompoundEntry;
 import org.apache.lucene.analysis.ko.dic.DictionaryUtil;
 import org.apache.lucene.analysis.ko.dic.SyllableFeatures;
 import org.apache.lucene.analysis.ko.dic.WordEntry;
 
+/**
+ * 띄어쓰기가 되지 않은 어절을 분리한다.
+ * <p>
+ * The analysis of a word may go back and retry from earlier positions, so 
+ * its work is bounded by a budget of steps (and optionally time): if this
+ * is exceeded, {@link #analyze(String)} returns null.
+ */
 public class WordSpaceAnalyzer {
 
-  private final MorphAnalyzer morphAnal = new MorphAnalyzer(false);
+  /** Default maximum number of steps for a word */
+  public static final int DEFAULT_MAX_STEPS = 512;
+  
+  private static final WSOuputComparator COMPARATOR = new WSOuputComparator();
+  
+  private static volatile boolean countBudgetExceeded = false;
+  private static final AtomicLong budgetExceeded = new AtomicLong();
+
+  private final MorphAnalyzer morphAnal;
+  
+  private final int maxSteps;
+  private final long maxNanos;
+  
+  public WordSpaceAnalyzer() {
+    this(DEFAULT_MAX_STEPS, 0);
+  }
+  
+  /**
+   * @param maxSteps  maximum number of steps (syllable positions visited, including retries) for a word
+   * @param maxNanos  maximum time for a word in nanoseconds, or 0 for no time limit
+   */
+  public WordSpaceAnalyzer(int maxSteps, long maxNanos) {
+    this(new MorphAnalyzer(false), maxSteps, maxNanos);
+  }
+  
+  /**
+   * @param morphAnal  analyzer of the words, which must not match compound nouns exactly
+   * @param maxSteps  maximum number of steps (syllable positions visited, including retries) for a word
+   * @param maxNanos  maximum time for a word in nanoseconds, or 0 for no time limit
+   */
+  public WordSpaceAnalyzer(MorphAnalyzer morphAnal, int maxSteps, long maxNanos) {
+    this.morphAnal = morphAnal;
+    this.maxSteps = maxSteps;
+    this.maxNanos = maxNanos;
+  }
   
+  /** 
+   * Starts or stops counting the words which exceeded their budget.
+   * @see org.apache.lucene.analysis.ko.AnalysisMetrics
+   */
+  public static void setCountBudgetExceeded(boolean count) {
+    countBudgetExceeded = count;
+  }
+  
+  /** returns how many times the analysis of a word exceeded its budget since the last reset, while counting */
+  public static long getBudgetExceededCount() {
+    return budgetExceeded.get();
+  }
+  
+  /** resets the count of words which exceeded their budget to 0 */
+  public static void resetBudgetExceededCount() {
+    budgetExceeded.set(0);
+  }
+  
+  /**
+   * splits the input into words.
+   * @param input input text
+   * @return the words, or null if the budget was exceeded
+   */
   public List<AnalysisOutput> analyze(String input)  {
 
     WSOutput output = new WSOutput();
     
     int wStart = 0;
-        
-    Map<Integer, Integer> fCounter = new HashMap<Integer, Integer>();
+    
+    // retry position for each end position (+1), or 0 if there was no retry yet
+    int retries[] = new int[input.length()+1];
+    
+    int features[] = SyllableFeatures.featuresOf(input, null);
+    
+    int steps = 0;
+    final long start = maxNanos > 0 ? System.nanoTime() : 0;
     
     for(int i=0;i<input.length();i++) {           
       
-      char ch = input.charAt(i);
+      if (++steps > maxSteps || (maxNanos > 0 && System.nanoTime() - start > maxNanos)) {
+        if(countBudgetExceeded) budgetExceeded.incrementAndGet();
+        return null;
+      }
+      
+      int sylFeatures = features[i];
       
       String prefix = i==input.length()-1 ? "X" : input.substring(wStart,i+2);          
       boolean prefixExists = DictionaryUtil.hasWordPrefix(prefix);
@@ -64,19 +138,19 @@ public class WordSpaceAnalyzer {
         candidates.add(buildSingleOutput(entry));
         
       // 현 음절이 조사나 어미가 시작되는 음절일 가능성이 있다면... 
-      } else if (SyllableFeatures.hasFeature(ch, SyllableFeatures.EOGAN) || 
-                 SyllableFeatures.hasFeature(ch, SyllableFeatures.JOSA1)) {        
-        if (SyllableFeatures.hasFeature(ch, SyllableFeatures.JOSA1)) { 
+      } else if (SyllableFeatures.hasFeature(sylFeatures, SyllableFeatures.EOGAN) || 
+                 SyllableFeatures.hasFeature(sylFeatures, SyllableFeatures.JOSA1)) {        
+        if (SyllableFeatures.hasFeature(sylFeatures, SyllableFeatures.JOSA1)) { 
           candidates.addAll(anlysisWithJosa(input.substring(wStart), i-wStart));
         }
 
-        if (SyllableFeatures.hasFeature(ch, SyllableFeatures.EOGAN)) { 
+        if (SyllableFeatures.hasFeature(sylFeatures, SyllableFeatures.EOGAN)) { 
           candidates.addAll(anlysisWithEomi(input.substring(wStart), i-wStart));
         }
       }
   
       // 후보가 될 가능성이 높은 순으로 정렬한다.
-      Collections.sort(candidates, new WSOuputComparator());
+      Collections.sort(candidates, COMPARATOR);
       
       // 길이가 가장 긴 단어를 단일어로 추가한다.
       appendSingleWord(candidates);
@@ -84,20 +158,19 @@ public class WordSpaceAnalyzer {
       // 분석에 실패한 단어를 
       analysisCompouns(candidates);
       
-      // 후보가 될 가능성이 높은 순으로 정렬한다.
-      Collections.sort(candidates, new WSOuputComparator());      
+      // 후보가 될 가능성이 높은 순으로 정렬한다. (validationAndAppend 는 앞의 2개만 사용한다)
+      selectTop(candidates, 2);
       
       int reseult = validationAndAppend(output, candidates, input);
       if(reseult==1) {
         i = output.getLastEnd()-1;
         wStart = output.getLastEnd();
       } else if(reseult==-1) {
-        Integer index = fCounter.get(output.getLastEnd());
-        if(index==null) index = output.getLastEnd();
-        else index = index + 1;
+        int lastEnd = output.getLastEnd();
+        int index = retries[lastEnd]==0 ? lastEnd : retries[lastEnd];
         i = index;
-        wStart = output.getLastEnd();
-        fCounter.put(output.getLastEnd(), index);       
+        wStart = lastEnd;
+        retries[lastEnd] = index + 1;       
       }
 
     } // end of for
@@ -190,9 +263,9 @@ public class WordSpaceAnalyzer {
     if(snippet.charAt(jstart-1)=='것'&&(snippet.charAt(jstart)=='을')) return jstart+1;
     
     if(snippet.length()>jstart+2&&snippet.charAt(jstart+1)=='스') { // 사랑스러운, 자랑스러운 같은 경우르 처리함.
-      char[] chrs = MorphUtil.decompose(snippet.charAt(jstart+2));
+      char ch = snippet.charAt(jstart+2);
 
-      if(chrs.length>=2&&chrs[0]=='ㄹ'&&chrs[1]=='ㅓ') return -1;
+      if(MorphUtil.choseong(ch)=='ㄹ'&&MorphUtil.jungseong(ch)=='ㅓ') return -1;
     }
     
     // 조사의 2음절로 사용될 수 마지막 음절을 찾는다.
@@ -334,15 +407,15 @@ public class WordSpaceAnalyzer {
           PatternConstants.PTN_N,AnalysisOutput.SCORE_ANALYSIS);  
       morphAnal.confirmCNoun(o);
       
-      List<CompoundEntry> cnouns = o.getCNounList();
-      if(cnouns.size()==0) {
-        boolean is = DictionaryUtil.getWordExceptVerb(pvword)!=null;
-        cnouns.add(new CompoundEntry(pvword, is));
+      if(o.getCNounList().size()==0) {
+        boolean is = DictionaryUtil.hasWordExceptVerb(pvword);
+        o.addCNoun(new CompoundEntry(pvword, is));
       } 
+      List<CompoundEntry> cnouns = o.getCNounList();
       
       for(AnalysisOutput candidate : candidates) {
-        candidate.getCNounList().addAll(cnouns);
-        candidate.getCNounList().add(new CompoundEntry(candidate.getStem(), true));
+        candidate.addCNouns(cnouns);
+        candidate.addCNoun(new CompoundEntry(candidate.getStem(), true));
         candidate.setStem(pvword+candidate.getStem()); // 이렇게 해야 WSOutput 에 복합명사 처리할 때 정상처리됨
       }
       
@@ -387,12 +460,12 @@ public class WordSpaceAnalyzer {
     int jend = 0;
     
     String tail = null;
-    char[] chr = MorphUtil.decompose(snippet.charAt(estart));
-    if(chr.length==3 && (chr[2]=='ㄴ')) {
+    char jong = MorphUtil.jongseong(snippet.charAt(estart));
+    if(jong=='ㄴ') {
       tail = '은'+snippet.substring(estart+1);
-    }else if(chr.length==3 && (chr[2]=='ㄹ')) {
+    }else if(jong=='ㄹ') {
       tail = '을'+snippet.substring(estart+1);     
-    }else if(chr.length==3 && (chr[2]=='ㅂ')) {
+    }else if(jong=='ㅂ') {
       tail = '습'+snippet.substring(estart+1);
     }else {
       tail = snippet.substring(estart);
@@ -409,9 +482,9 @@ public class WordSpaceAnalyzer {
           
     for(int i=start;i>0;i--) { // 찾을 수 없더라도 1음절은 반드시 반환해야 한다.
       String str = tail.substring(0,i+1); 
-      char[] chrs = MorphUtil.decompose(tail.charAt(i));  
+      char last = MorphUtil.jongseong(tail.charAt(i));  
       if(DictionaryUtil.existEomi(str) || 
-          (i<2&&chrs.length==3&&(chrs[2]=='ㄹ'||chrs[2]=='ㅁ'||chrs[2]=='ㄴ'))) { // ㅁ,ㄹ,ㄴ이 연속된 용언은 없다, 사전을 보고 확인을 해보자
+          (i<2&&(last=='ㄹ'||last=='ㅁ'||last=='ㄴ'))) { // ㅁ,ㄹ,ㄴ이 연속된 용언은 없다, 사전을 보고 확인을 해보자
         jend = i;
         break;
       }
@@ -440,9 +513,9 @@ public class WordSpaceAnalyzer {
     
     char ja = 'x'; // 임의의 문자
     if(po!=null&&(po.getPatn()==PatternConstants.PTN_VM||po.getPatn()==PatternConstants.PTN_VMCM||po.getPatn()==PatternConstants.PTN_VMXM)) {   
-      char[] chs = MorphUtil.decompose(po.getEomi().charAt(po.getEomi().length()-1));
-      if(chs.length==3) ja=chs[2];
-      else if(chs.length==1) ja=chs[0];     
+      char ch = po.getEomi().charAt(po.getEomi().length()-1);
+      if(!MorphUtil.isSyllable(ch)) ja=ch;
+      else if(MorphUtil.jongseong(ch)!=0) ja=MorphUtil.jongseong(ch);     
     }
     
     int nEnd = output.getLastEnd()+o.getSource().length();
@@ -504,6 +577,24 @@ public class WordSpaceAnalyzer {
     return o;
   }
   
+  /**
+   * moves the best n candidates to the front of the list, in order: 
+   * the same as a (stable) sort for the first n elements, without sorting the rest.
+   */
+  static void selectTop(List<AnalysisOutput> candidates, int n) {
+    for (int i = 0; i < n && i < candidates.size() - 1; i++) {
+      int best = i;
+      for (int j = i + 1; j < candidates.size(); j++) {
+        if (COMPARATOR.compare(candidates.get(j), candidates.get(best)) < 0) {
+          best = j;
+        }
+      }
+      if (best != i) {
+        candidates.add(i, candidates.remove(best));
+      }
+    }
+  }
+  
   private void analysisCompouns(List<AnalysisOutput> candidates) {
     
     // 복합명사 분해여부 결정하여 분해
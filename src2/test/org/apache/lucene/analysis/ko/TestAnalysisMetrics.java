@@ -0,0 +1,138 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ko.AnalysisMetrics.Stage;
+import org.apache.lucene.util.Version;
+
+public class TestAnalysisMetrics extends BaseTokenStreamTestCase {
+
+  @Override
+  public void tearDown() throws Exception {
+    AnalysisMetrics.get().setEnabled(false);
+    AnalysisMetrics.get().reset();
+    super.tearDown();
+  }
+
+  public void testDisabled() throws IOException {
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(false);
+    metrics.reset();
+    consume(new KoreanAnalyzer(Version.LUCENE_47), "자바로 전부 제작된 텍스트 검색 엔진");
+    assertEquals(0, metrics.getInputTokens());
+    assertEquals(0, metrics.getCalls(Stage.MORPH));
+    assertEquals(0, metrics.getDictionaryLookups());
+  }
+
+  public void testCounts() throws IOException {
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(true);
+    metrics.reset();
+    KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+    analyzer.setHasOrigin(false);
+    int tokens = consume(analyzer, "자바로 전부 제작된 텍스트 검색 엔진 lucene");
+    assertEquals(7, metrics.getInputTokens());
+    assertEquals(tokens, metrics.getOutputTokens());
+    assertEquals(6, metrics.getCalls(Stage.MORPH));
+    assertTrue(metrics.getNanos(Stage.MORPH) > 0);
+    assertTrue(metrics.getDictionaryLookups() > 0);
+    assertEquals(Long.valueOf(6), metrics.getCalls().get("MORPH"));
+  }
+
+  public void testChinese() throws IOException {
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(true);
+    metrics.reset();
+    consume(new KoreanAnalyzer(Version.LUCENE_47), "大韓民國");
+    assertEquals(1, metrics.getCalls(Stage.CHINESE));
+    assertEquals(1, metrics.getCalls(Stage.COMPOUND_NOUN));
+  }
+
+  public void testSpacingBudgetExceeded() throws IOException {
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(false);
+    metrics.reset();
+    // a budget of one step
+    consume(new KoreanFilter(new KoreanTokenizer(new StringReader("형태소분석기를만들었다")), 
+        false, false, false, true, 0, 1, 0));
+    assertEquals(0, metrics.getSpacingBudgetExceeded());
+    
+    metrics.setEnabled(true);
+    consume(new KoreanFilter(new KoreanTokenizer(new StringReader("형태소분석기를만들었다")), 
+        false, false, false, true, 0, 1, 0));
+    assertEquals(1, metrics.getSpacingBudgetExceeded());
+    metrics.reset();
+    assertEquals(0, metrics.getSpacingBudgetExceeded());
+  }
+
+  public void testCompoundNoun() throws IOException {
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(true);
+    metrics.reset();
+    // korean nouns are decompounded within the morphological analysis
+    consume(new KoreanAnalyzer(Version.LUCENE_47), "형태소분석기를 만들었다");
+    assertEquals(0, metrics.getCalls(Stage.CHINESE));
+    assertTrue(metrics.getCalls(Stage.COMPOUND_NOUN) > 0);
+    assertTrue(metrics.getNanos(Stage.COMPOUND_NOUN) > 0);
+    assertEquals(Long.valueOf(metrics.getCalls(Stage.COMPOUND_NOUN)), metrics.getCalls().get("COMPOUND_NOUN"));
+  }
+
+  public void testWindowCache() throws IOException {
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(true);
+    metrics.reset();
+    KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+    analyzer.setWindowSize(8);
+    consume(analyzer, "검색 엔진 검색 엔진");
+    assertEquals(2, metrics.getCacheMisses());
+    // each pair of words is checked for a join, then each word is analyzed
+    assertEquals(8, metrics.getCacheHits());
+  }
+
+  public void testRegister() throws Exception {
+    ObjectName name = AnalysisMetrics.register();
+    assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    assertEquals(name, AnalysisMetrics.register());
+  }
+
+  private static int consume(KoreanAnalyzer analyzer, String text) throws IOException {
+    return consume(analyzer.tokenStream("dummy", text));
+  }
+
+  private static int consume(TokenStream ts) throws IOException {
+    int tokens = 0;
+    try {
+      ts.reset();
+      while (ts.incrementToken()) {
+        tokens++;
+      }
+      ts.end();
+    } finally {
+      ts.close();
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,126 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.util.Version;
+
+public class TestEojeolTable extends BaseTokenStreamTestCase {
+  
+  private static final String TEXT = "자바로 전부 제작된 텍스트 검색 엔진 라이브러리";
+  
+  private static Map<String,String> analyzerArgs() {
+    // the options of KoreanAnalyzer
+    Map<String,String> args = new HashMap<String,String>();
+    args.put("bigrammable", "false");
+    args.put("hasOrigin", "false");
+    return args;
+  }
+  
+  public void testSameTokens() throws IOException {
+    EojeolTable table = EojeolTable.build(Arrays.asList(TEXT.split(" ")), analyzerArgs());
+    KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+    analyzer.setEojeolTable(table);
+    assertAnalyzesTo(analyzer, TEXT,
+        new String[]{"자바", "전부", "제작", "텍스트", "검색", "엔진", "라이브러리"},
+        new int[]{0, 4, 7, 11, 15, 18, 21},
+        new int[]{2, 6, 9, 14, 17, 20, 26},
+        new int[]{1, 1, 1, 1, 1, 1, 1}
+    );
+  }
+  
+  public void testTableHits() throws IOException {
+    EojeolTable table = EojeolTable.build(Arrays.asList("자바로", "검색"), analyzerArgs());
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(true);
+    metrics.reset();
+    try {
+      KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+      analyzer.setEojeolTable(table);
+      assertEquals("자바/0 검색/4 엔진/7 ", tokens(analyzer.tokenStream("dummy", "자바로 검색 엔진")));
+      assertEquals(2, metrics.getTableHits());
+    } finally {
+      metrics.setEnabled(false);
+      metrics.reset();
+    }
+  }
+  
+  public void testReadWrite() throws IOException {
+    Map<String,String> args = analyzerArgs();
+    args.put("hasOrigin", "true");
+    EojeolTable table = EojeolTable.build(Arrays.asList("검색엔진"), args);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    table.write(out);
+    EojeolTable read = EojeolTable.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(table.getConfig(), read.getConfig());
+    
+    TokenStream expected = new KoreanFilter(new KoreanTokenizer(new StringReader("큰 검색엔진")), false, true);
+    KoreanFilter filter = new KoreanFilter(new KoreanTokenizer(new StringReader("큰 검색엔진")), false, true);
+    filter.setEojeolTable(read);
+    assertEquals(tokens(expected), tokens(filter));
+  }
+  
+  public void testOtherConfig() throws IOException {
+    EojeolTable table = EojeolTable.build(Arrays.asList("검색"), analyzerArgs());
+    KoreanFilter filter = new KoreanFilter(new KoreanTokenizer(new StringReader("검색")), true);
+    try {
+      filter.setEojeolTable(table);
+      fail();
+    } catch (IllegalArgumentException expected) {}
+  }
+  
+  public void testQueryModeAfterTable() throws IOException {
+    EojeolTable table = EojeolTable.build(Arrays.asList("검색"), analyzerArgs());
+    KoreanFilter filter = new KoreanFilter(new KoreanTokenizer(new StringReader("검색")), false);
+    filter.setEojeolTable(table);
+    filter.setQueryMode(false);
+    try {
+      filter.setQueryMode(true);
+      fail();
+    } catch (IllegalStateException expected) {}
+    assertFalse(filter.isQueryMode());
+    
+    filter.setEojeolTable(null);
+    filter.setQueryMode(true);
+    assertTrue(filter.isQueryMode());
+  }
+  
+  private static String tokens(TokenStream ts) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+    OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+    ts.reset();
+    while (ts.incrementToken()) {
+      sb.append(termAtt).append('/').append(offsetAtt.startOffset()).append(' ');
+    }
+    ts.end();
+    ts.close();
+    return sb.toString();
+  }
+}
@@ -0,0 +1,151 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ko.morph.WordSpaceAnalyzer;
+import org.apache.lucene.util.Version;
+
+public class TestKoreanFilter extends BaseTokenStreamTestCase {
+
+  /** a KoreanFilter in window mode over a MockTokenizer, which checks the TokenStream contract */
+  private static Analyzer windowAnalyzer(final int window) {
+    return new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        Tokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        return new TokenStreamComponents(tokenizer, new KoreanFilter(tokenizer, true, false, false, true, window));
+      }
+    };
+  }
+
+  public void testWindowEndOfInput() throws IOException {
+    Analyzer analyzer = windowAnalyzer(4);
+    // the input is not read again after it returned false
+    assertAnalyzesTo(analyzer, "자바로 전부", new String[]{"자바로", "전부"});
+    assertAnalyzesTo(analyzer, "자바로 전부 제작된 텍스트 검색 엔진",
+        new String[]{"자바로", "전부", "제작된", "텍스트", "검색", "엔진"});
+    analyzer.close();
+  }
+
+  public void testChinese() throws IOException {
+    assertAnalyzesTo(new KoreanAnalyzer(Version.LUCENE_47), "大韓民國",
+        new String[]{"大韓民國", "대한민국", "大韓", "대한", "民國", "민국"}
+    );
+  }
+
+  public void testWindow() throws IOException {
+    KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+    analyzer.setWindowSize(16);
+    
+    // a wrong space within a word: the joined word is also returned
+    assertAnalyzesTo(analyzer, "라이브 러리 검색 엔진",
+        new String[]{"라이브", "라이브러리", "러리", "검색", "엔진"},
+        new int[]{0, 0, 4, 7, 10},
+        new int[]{3, 6, 6, 9, 12},
+        new int[]{1, 0, 1, 1, 1}
+    );
+    // the joined noun ends before the josa of the second token
+    assertAnalyzesTo(analyzer, "라이브 러리를 검색",
+        new String[]{"라이브", "라이브러리", "러리", "러리를", "검색"},
+        new int[]{0, 0, 4, 4, 8},
+        new int[]{3, 6, 6, 7, 10},
+        new int[]{1, 0, 1, 0, 1}
+    );
+    
+    // otherwise the same as analyzing each token by itself
+    assertAnalyzesTo(analyzer, "자바로 전부 제작된 텍스트 검색 엔진 라이브러리",
+        new String[]{"자바", "전부", "제작", "텍스트", "검색", "엔진", "라이브러리"},
+        new int[]{0, 4, 7, 11, 15, 18, 21},
+        new int[]{2, 6, 9, 14, 17, 20, 26},
+        new int[]{1, 1, 1, 1, 1, 1, 1}
+    );
+  }
+
+  public void testWindowBoundary() throws IOException {
+    // with a window of 1 or 4 the wrong space is between two windows
+    for (int window : new int[] { 1, 3, 4, 16 }) {
+      KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+      analyzer.setWindowSize(window);
+      assertAnalyzesTo(analyzer, "자바 검색 엔진 라이브 러리",
+          new String[]{"자바", "검색", "엔진", "라이브", "라이브러리", "러리"},
+          new int[]{0, 3, 6, 9, 9, 13},
+          new int[]{2, 5, 8, 12, 15, 15},
+          new int[]{1, 1, 1, 1, 0, 1}
+      );
+    }
+  }
+
+  public void testQueryMode() throws IOException {
+    KoreanAnalyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+    analyzer.setQueryMode(true);
+    analyzer.setHasOrigin(true);
+    analyzer.setBigrammable(true);
+    
+    // only the best stem of each word: no origin, compound parts or bigrams
+    assertAnalyzesTo(analyzer, "빅데이터를 분석하는 형태소분석기",
+        new String[]{"빅데이터", "분석", "형태소분석기"},
+        new int[]{0, 6, 11},
+        new int[]{4, 8, 17},
+        new int[]{1, 1, 1}
+    );
+    
+    // the best analysis is a verb: the noun which is indexed is returned
+    assertAnalyzesTo(analyzer, "스침에게까지만 새우며 오기이든",
+        new String[]{"스침", "새우", "오기"},
+        new int[]{0, 8, 12},
+        new int[]{2, 10, 14},
+        new int[]{1, 1, 1}
+    );
+  }
+
+  public void testSpacingBudget() throws IOException {
+    AnalysisMetrics metrics = AnalysisMetrics.get();
+    metrics.setEnabled(true);
+    metrics.reset();
+    try {
+      // a budget of one step: the token is not split into words, its bigrams are returned instead
+      TokenStream ts = new KoreanFilter(new KoreanTokenizer(new StringReader("형태소분석기를만들었다")), 
+          false, false, false, true, 0, 1, 0);
+      assertTokenStreamContents(ts,
+          new String[]{"형태소분석기를만들었다", "형태", "태소", "소분", "분석", "석기", "기를", "를만", "만들", "들었", "었다"},
+          new int[]{0, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9},
+          new int[]{11, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11},
+          new int[]{1, 0, 1, 1, 1, 1, 1, 1, 1, 1, 1}
+      );
+      assertEquals(1, WordSpaceAnalyzer.getBudgetExceededCount());
+      assertEquals(1, metrics.getSpacingBudgetExceeded());
+    } finally {
+      metrics.setEnabled(false);
+      metrics.reset();
+    }
+  }
+
+  public void testWindowRandomStrings() throws IOException {
+    checkRandomData(random(), windowAnalyzer(1), 500 * RANDOM_MULTIPLIER);
+    checkRandomData(random(), windowAnalyzer(4), 500 * RANDOM_MULTIPLIER);
+  }
+}
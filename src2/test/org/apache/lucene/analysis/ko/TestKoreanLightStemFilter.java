@@ -0,0 +1,69 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.util.TokenFilterFactory;
+import org.apache.lucene.util.Version;
+
+public class TestKoreanLightStemFilter extends BaseTokenStreamTestCase {
+
+  public void testJosa() throws IOException {
+    TokenStream ts = new KoreanLightStemFilter(new SimpleKoreanTokenizer(new StringReader("학교에서 공항철도를 사과를 고양이 lucene을")));
+    assertTokenStreamContents(ts,
+        new String[] { "학교", "공항철도", "사과", "고양이", "lucene" },
+        new int[] { 0, 5, 11, 15, 19 },
+        new int[] { 4, 10, 14, 18, 26 }
+    );
+  }
+
+  public void testMinStemLength() throws IOException {
+    // 사과 is not split into 사+과, 나는 keeps its josa
+    assertTokenStreamContents(new KoreanLightStemFilter(new SimpleKoreanTokenizer(new StringReader("사과 나는"))),
+        new String[] { "사과", "나는" });
+    assertTokenStreamContents(new KoreanLightStemFilter(new SimpleKoreanTokenizer(new StringReader("나는")), 1),
+        new String[] { "나" });
+  }
+
+  public void testOtherTypes() throws IOException {
+    assertTokenStreamContents(new KoreanLightStemFilter(new SimpleKoreanTokenizer(new StringReader("漢字는 2014"))),
+        new String[] { "漢字", "는", "2014" });
+  }
+
+  public void testAnalyzer() throws IOException {
+    KoreanLightAnalyzer analyzer = new KoreanLightAnalyzer(Version.LUCENE_47);
+    assertAnalyzesTo(analyzer, "Lucene은 자바로 만든 검색 라이브러리이다",
+        new String[] { "lucene", "자바", "만든", "검색", "라이브러리" });
+    analyzer.close();
+  }
+
+  public void testFactory() throws IOException {
+    Map<String,String> args = new HashMap<String,String>();
+    args.put("minStemLength", "1");
+    TokenFilterFactory factory = TokenFilterFactory.forName("KoreanLightStem", args);
+    assertTrue(factory instanceof KoreanLightStemFilterFactory);
+    assertTokenStreamContents(factory.create(new SimpleKoreanTokenizer(new StringReader("나는 학교에"))),
+        new String[] { "나", "학교" });
+  }
+}
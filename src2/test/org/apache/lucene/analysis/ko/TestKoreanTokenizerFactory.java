@@ -23,9 +23,7 @@ import java.util.HashMap;
 
 import org.apache.lucene.analysis.BaseTokenStreamTestCase;
 import org.apache.lucene.analysis.TokenStream;
-import org.junit.Ignore;
 
-@Ignore
 public class TestKoreanTokenizerFactory extends BaseTokenStreamTestCase {
 
   public void testBasic() throws IOException {
@@ -35,4 +33,15 @@ public class TestKoreanTokenizerFactory extends BaseTokenStreamTestCase {
         new String[]{"자바로", "전부", "제작된", "텍스트", "검색", "엔진", "라이브러리"}
     );
   }
+  
+  public void testSimple() throws IOException {
+    HashMap<String, String> args = new HashMap<String, String>();
+    args.put("simple", "true");
+    KoreanTokenizerFactory factory = new KoreanTokenizerFactory(args);
+    TokenStream ts = factory.create(new StringReader("자바로 전부 제작된 텍스트 검색 엔진 라이브러리"));
+    assertTrue(ts instanceof SimpleKoreanTokenizer);
+    assertTokenStreamContents(ts,
+        new String[]{"자바로", "전부", "제작된", "텍스트", "검색", "엔진", "라이브러리"}
+    );
+  }
 }
@@ -0,0 +1,142 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.MockTokenizer;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.Version;
+
+public class TestParallelKoreanAnalyzer extends BaseTokenStreamTestCase {
+
+  private static final String SENTENCES[] = {
+      "자바로 전부 제작된 텍스트 검색 엔진 라이브러리이다.",
+      "아파치 루씬(Apache Lucene)은 자바 언어로 만든 정보 검색 라이브러리이다.",
+      "형태소 분석기는 2014년에 공개되었다!",
+      "학교에서 공부했다 그리고",
+  };
+
+  public void testSplit() {
+    assertTrue(Arrays.equals(new int[] { 0, 0 }, ParallelKoreanAnalyzer.split("", 10)));
+    assertTrue(Arrays.equals(new int[] { 0, 5 }, ParallelKoreanAnalyzer.split("가나다라마", 10)));
+    // at the end of a sentence, else at a whitespace, else after the limit
+    assertTrue(Arrays.equals(new int[] { 0, 5, 12 }, ParallelKoreanAnalyzer.split("가나다라. 마바 사아자", 9)));
+    assertTrue(Arrays.equals(new int[] { 0, 6, 10 }, ParallelKoreanAnalyzer.split("가나 다라마 바사아", 8)));
+    assertTrue(Arrays.equals(new int[] { 0, 10, 13 }, ParallelKoreanAnalyzer.split("가나다라마바사아자차 카타", 4)));
+  }
+
+  public void testSameAsSequential() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      sb.append(SENTENCES[i % SENTENCES.length]).append(i % 7 == 0 ? "\n" : " ");
+    }
+    String text = sb.toString();
+
+    Analyzer analyzer = new KoreanAnalyzer(Version.LUCENE_47);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<String> expected = tokens(analyzer, text);
+      for (int chunkSize : new int[] { 50, 333, 4096, text.length() }) {
+        Analyzer parallel = new ParallelKoreanAnalyzer(analyzer, pool, chunkSize);
+        assertEquals("chunkSize=" + chunkSize, expected, tokens(parallel, text));
+        // reused
+        assertEquals("chunkSize=" + chunkSize, expected, tokens(parallel, text));
+        parallel.close();
+      }
+    } finally {
+      pool.shutdown();
+      analyzer.close();
+    }
+  }
+
+  public void testOwnPool() throws IOException {
+    Analyzer parallel = new ParallelKoreanAnalyzer(new KoreanAnalyzer(Version.LUCENE_47));
+    assertAnalyzesTo(parallel, "자바로 전부 제작된", new String[] { "자바", "전부", "제작" });
+    parallel.close();
+  }
+
+  public void testIOException() throws IOException {
+    // the delegate fails on one chunk, in a worker thread of the pool
+    Analyzer failing = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        MockTokenizer tokenizer = new MockTokenizer(reader, MockTokenizer.WHITESPACE, false);
+        tokenizer.setEnableChecks(false); // closed after the exception
+        return new TokenStreamComponents(tokenizer, new TokenFilter(tokenizer) {
+          private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+
+          @Override
+          public boolean incrementToken() throws IOException {
+            if (input.incrementToken()) {
+              if ("error".equals(termAtt.toString())) {
+                throw new IOException("failed chunk");
+              }
+              return true;
+            }
+            return false;
+          }
+        });
+      }
+    };
+    ForkJoinPool pool = new ForkJoinPool(4);
+    Analyzer parallel = new ParallelKoreanAnalyzer(failing, pool, 10);
+    try {
+      tokens(parallel, "자바로 전부 제작된 텍스트 error 검색 엔진 라이브러리이다.");
+      fail("no IOException");
+    } catch (IOException e) {
+      assertEquals("failed chunk", e.getMessage());
+    } finally {
+      parallel.close();
+      pool.shutdown();
+    }
+  }
+
+  private static List<String> tokens(Analyzer analyzer, String text) throws IOException {
+    List<String> tokens = new ArrayList<String>();
+    TokenStream ts = analyzer.tokenStream("field", text);
+    CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+    OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+    PositionIncrementAttribute posIncrAtt = ts.addAttribute(PositionIncrementAttribute.class);
+    TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+    try {
+      ts.reset();
+      while (ts.incrementToken()) {
+        tokens.add(termAtt + "/" + offsetAtt.startOffset() + "-" + offsetAtt.endOffset() + "/"
+            + posIncrAtt.getPositionIncrement() + "/" + typeAtt.type());
+      }
+      ts.end();
+      tokens.add("end/" + offsetAtt.endOffset() + "/" + posIncrAtt.getPositionIncrement());
+    } finally {
+      ts.close();
+    }
+    return tokens;
+  }
+}
@@ -0,0 +1,120 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.BaseTokenStreamTestCase;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.OffsetAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+
+public class TestSimpleKoreanTokenizer extends BaseTokenStreamTestCase {
+
+  public void testBasics() throws IOException {
+    assertTokenStreamContents(new SimpleKoreanTokenizer(new StringReader("자바로 전부 제작된 텍스트 검색 엔진 라이브러리")),
+        new String[] { "자바로", "전부", "제작된", "텍스트", "검색", "엔진", "라이브러리" },
+        new int[] { 0, 4, 7, 11, 15, 18, 21 },
+        new int[] { 3, 6, 10, 14, 17, 20, 26 },
+        new String[] { "<KOREAN>", "<KOREAN>", "<KOREAN>", "<KOREAN>", "<KOREAN>", "<KOREAN>", "<KOREAN>" },
+        new int[] { 1, 1, 1, 1, 1, 1, 1 }
+    );
+  }
+
+  public void testMixed() throws IOException {
+    assertTokenStreamContents(new SimpleKoreanTokenizer(new StringReader("lucene4버전 漢字abc한글 ひらがな 2014")),
+        new String[] { "lucene4버전", "漢字abc", "한글", "ひらがな", "2014" },
+        new String[] { "<KOREAN>", "<CHINESE>", "<KOREAN>", "<CJ>", "<ALPHANUM>" }
+    );
+  }
+  
+  public void testJamo() throws IOException {
+    assertTokenStreamContents(new SimpleKoreanTokenizer(new StringReader("漢ᄀ ᄀa가b 가ᄀa가")),
+        new String[] { "漢ᄀ", "ᄀa가b", "가ᄀa가" },
+        new String[] { "<CHINESE>", "<KOREAN>", "<KOREAN>" }
+    );
+  }
+  
+  /** hangul, hanja and alphanumeric text must be tokenized the same as the jflex tokenizer */
+  public void testSameAsKoreanTokenizer() throws IOException {
+    String texts[] = {
+        "자바로 전부 제작된 텍스트 검색 엔진 라이브러리",
+        "아파치 루씬(Apache Lucene)은 자바 언어로 만든 정보 검색 라이브러리이다.",
+        "韓國語 形態素 分析器는 2014년에 公開되었다",
+        "abc한글def한글ghi 漢字한글 한글漢字 ひらがなカタカナ ㇰㇱㇲ カㇷ゚ ㇿ한글",
+        // jamo are letters of both alphanumeric and hangul tokens
+        "漢ᄀ 漢ᄀa가 ᄀ ᄀa가b 가ᄀa ab가ᅡcd가 ᄒᆞᆫ글 ᆨ漢",
+    };
+    for (String text : texts) {
+      assertEquals(tokens(new KoreanTokenizer(new StringReader(text))),
+                   tokens(new SimpleKoreanTokenizer(new StringReader(text))));
+    }
+  }
+  
+  public void testMaxTokenLength() throws IOException {
+    SimpleKoreanTokenizer tokenizer = new SimpleKoreanTokenizer(new StringReader("한글 라이브러리 검색"));
+    tokenizer.setMaxTokenLength(3);
+    assertTokenStreamContents(tokenizer,
+        new String[] { "한글", "검색" },
+        new int[] { 1, 2 }
+    );
+  }
+  
+  public void testLongInput() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      sb.append("검색엔진 ");
+    }
+    String text = sb.toString();
+    assertEquals(tokens(new KoreanTokenizer(new StringReader(text))),
+                 tokens(new SimpleKoreanTokenizer(new StringReader(text))));
+  }
+  
+  public void testRandomStrings() throws Exception {
+    Analyzer a = new Analyzer() {
+      @Override
+      protected TokenStreamComponents createComponents(String fieldName, Reader reader) {
+        return new TokenStreamComponents(new SimpleKoreanTokenizer(reader));
+      }
+    };
+    checkRandomData(random(), a, 1000*RANDOM_MULTIPLIER);
+  }
+  
+  /** returns term/type/startOffset/endOffset of each token */
+  private static List<String> tokens(Tokenizer tokenizer) throws IOException {
+    List<String> tokens = new ArrayList<String>();
+    TokenStream ts = tokenizer;
+    CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+    TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+    OffsetAttribute offsetAtt = ts.addAttribute(OffsetAttribute.class);
+    ts.reset();
+    while (ts.incrementToken()) {
+      tokens.add(termAtt + "/" + typeAtt.type() + "/" + offsetAtt.startOffset() + "-" + offsetAtt.endOffset());
+    }
+    ts.end();
+    ts.close();
+    return tokens;
+  }
+}
@@ -0,0 +1,85 @@
+package org.apache.lucene.analysis.ko.dic;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestHangulDictionary extends LuceneTestCase {
+  
+  private static final String WORDS[] = {
+    "자바", "라이브러리", "검색엔진", "사업", "대한민국", "학교", "없는단어", "가", "빅데이터"
+  };
+
+  public void testLookups() {
+    HangulDictionary dictionary = DictionaryUtil.getDictionary();
+    assertTrue(dictionary.lookup("자바") >= 0);
+    assertEquals(-1, dictionary.lookup("자바자바자바"));
+    assertEquals(-1, dictionary.lookup(""));
+    assertTrue(dictionary.hasPrefix("라이브"));
+    assertFalse(dictionary.hasPrefix("라이브러리러리"));
+    assertEquals(2, dictionary.longestMatch("자바로", WordEntry.NOUN));
+  }
+  
+  /** lookups from many threads return the same results as from a single one */
+  public void testThreads() throws Exception {
+    final HangulDictionary dictionary = DictionaryUtil.getDictionary();
+    final String expected = lookupAll(dictionary);
+    int threads = atLeast(4);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<String>> tasks = new ArrayList<Callable<String>>();
+      for (int i = 0; i < threads; i++) {
+        tasks.add(new Callable<String>() {
+          @Override
+          public String call() {
+            String result = null;
+            for (int round = 0; round < 1000; round++) {
+              result = lookupAll(dictionary);
+            }
+            return result;
+          }
+        });
+      }
+      for (Future<String> future : executor.invokeAll(tasks)) {
+        assertEquals(expected, future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+  
+  private static String lookupAll(HangulDictionary dictionary) {
+    StringBuilder sb = new StringBuilder();
+    for (String word : WORDS) {
+      for (int end = 1; end <= word.length(); end++) {
+        String prefix = word.substring(0, end);
+        sb.append(dictionary.lookup(prefix)).append(',');
+        sb.append(dictionary.hasPrefix(prefix)).append(',');
+      }
+      sb.append(dictionary.longestMatch(word, WordEntry.NOUN)).append(';');
+    }
+    return sb.toString();
+  }
+}
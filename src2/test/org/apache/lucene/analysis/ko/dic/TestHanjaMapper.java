@@ -18,9 +18,7 @@ package org.apache.lucene.analysis.ko.dic;
  */
 
 import org.apache.lucene.util.LuceneTestCase;
-import org.junit.Ignore;
 
-@Ignore
 public class TestHanjaMapper extends LuceneTestCase {
   
   public void testOneToOne() {
@@ -38,6 +36,14 @@ public class TestHanjaMapper extends LuceneTestCase {
     assertEquals("\uFF09", new String(HanjaMapper.convertToHangul('\uFF09')));
   }
   
+  public void testReuse() {
+    char readings[] = new char[1];
+    assertEquals(1, HanjaMapper.convertToHangul('枳', readings));
+    assertEquals('기', readings[0]);
+    assertEquals(1, HanjaMapper.convertToHangul('A', readings));
+    assertEquals('A', readings[0]);
+  }
+  
   public void testEitherHangulOrItselfBack() {
     for (int i = 0; i <= 0xFFFF; i++) {
       char res[] = HanjaMapper.convertToHangul((char)i);
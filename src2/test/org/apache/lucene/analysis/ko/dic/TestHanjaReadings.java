@@ -0,0 +1,56 @@
+package org.apache.lucene.analysis.ko.dic;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestHanjaReadings extends LuceneTestCase {
+
+  public void testDictionaryReading() {
+    HanjaReadings readings = new HanjaReadings();
+    assertEquals(Arrays.asList("대한민국"), readings.generate("大韓民國", 5));
+    assertEquals(Arrays.asList("학교"), readings.generate("學校", 5));
+  }
+
+  public void testManyReadings() {
+    // 金: 금, 김
+    assertEquals(Arrays.asList("금", "김"), new HanjaReadings().generate("金", 5));
+    assertEquals(Arrays.asList("금"), new HanjaReadings().generate("金", 1));
+  }
+
+  public void testBeamWidth() {
+    assertEquals(1, new HanjaReadings(1, 100).generate("金", 5).size());
+  }
+
+  public void testMaxSteps() {
+    // without lookups, each hanja is read with its first pronunciation
+    assertEquals(Arrays.asList("대한민국"), new HanjaReadings(8, 0).generate("大韓民國", 5));
+  }
+
+  public void testLongWord() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      sb.append("大韓民國");
+    }
+    String reading = new HanjaReadings().generate(sb, 5).get(0);
+    assertEquals(sb.length(), reading.length());
+    assertTrue(reading.startsWith("대한민국"));
+  }
+}
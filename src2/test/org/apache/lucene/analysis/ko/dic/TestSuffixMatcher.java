@@ -0,0 +1,52 @@
+package org.apache.lucene.analysis.ko.dic;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.apache.lucene.analysis.ko.dic.SuffixMatcher.SUFFIX;
+import static org.apache.lucene.analysis.ko.dic.SuffixMatcher.WORD;
+
+import java.util.Arrays;
+
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestSuffixMatcher extends LuceneTestCase {
+
+  public void testMatch() throws Exception {
+    SuffixMatcher matcher = new SuffixMatcher(Arrays.asList("에서", "에서부터", "부터", "가"));
+    int result[] = matcher.match("학교에서부터", null);
+    assertEquals(0, result[0]);
+    assertEquals(0, result[1]);
+    assertEquals(WORD | SUFFIX, result[2]); // 에서부터
+    assertEquals(SUFFIX, result[3]);        // 서부터
+    assertEquals(WORD | SUFFIX, result[4]); // 부터
+    assertEquals(SUFFIX, result[5]);        // 터
+  }
+
+  public void testNoMatch() throws Exception {
+    SuffixMatcher matcher = new SuffixMatcher(Arrays.asList("에서", "가"));
+    int result[] = matcher.match("학교", new int[] { 5, 5, 5 });
+    assertEquals(0, result[0]);
+    assertEquals(0, result[1]);
+  }
+
+  public void testJosa() {
+    int result[] = DictionaryUtil.matchJosa("학교에서", null);
+    assertTrue((result[2] & WORD) != 0);
+    assertTrue(DictionaryUtil.existJosa("에서"));
+  }
+}
@@ -28,12 +28,12 @@ import static org.apache.lucene.analysis.ko.dic.SyllableFeatures.YNPLA;
 import static org.apache.lucene.analysis.ko.dic.SyllableFeatures.YNPLN;
 import static org.apache.lucene.analysis.ko.dic.SyllableFeatures.YNPMA;
 import static org.apache.lucene.analysis.ko.dic.SyllableFeatures.YNPNA;
+import static org.apache.lucene.analysis.ko.dic.SyllableFeatures.features;
+import static org.apache.lucene.analysis.ko.dic.SyllableFeatures.featuresOf;
 import static org.apache.lucene.analysis.ko.dic.SyllableFeatures.hasFeature;
 
 import org.apache.lucene.util.LuceneTestCase;
-import org.junit.Ignore;
 
-@Ignore
 public class TestSyllableFeatures extends LuceneTestCase {
 
   public void testGa() {
@@ -76,6 +76,30 @@ public class TestSyllableFeatures extends LuceneTestCase {
     assertTrue(hasFeature('갈', YNPLA));
   }
   
+  public void testFeatures() {
+    int features = features('간');
+    assertFalse(hasFeature(features, JOSA1));
+    assertTrue(hasFeature(features, EOMI2));
+    assertTrue(hasFeature(features, YNPNA));
+    assertTrue(hasFeature(features, YNPLN));
+    assertTrue(hasFeature(features, EOGAN));
+    assertEquals(0, features('갂'));
+    assertEquals(0, features('a'));
+  }
+  
+  public void testFeaturesOf() {
+    String word = "가a간갂";
+    int features[] = featuresOf(word, null);
+    assertEquals(word.length(), features.length);
+    for (int i = 0; i < word.length(); i++) {
+      assertEquals(features(word.charAt(i)), features[i]);
+    }
+    // reuse
+    int reuse[] = new int[10];
+    assertSame(reuse, featuresOf(word, reuse));
+    assertEquals(features('간'), reuse[2]);
+  }
+  
   public void testOutOfBounds() {
     for (int i = 0; i < 0xAC00; i++) {
       assertNoFeatures((char)i);
@@ -86,6 +110,7 @@ public class TestSyllableFeatures extends LuceneTestCase {
   }
   
   private void assertNoFeatures(char ch) {
+    assertEquals(0, features(ch));
     assertFalse(hasFeature(ch, JOSA1));
     assertFalse(hasFeature(ch, JOSA2));
     assertFalse(hasFeature(ch, EOMI2));
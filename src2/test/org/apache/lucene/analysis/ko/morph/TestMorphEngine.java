@@ -0,0 +1,115 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestMorphEngine extends LuceneTestCase {
+
+  public void testShared() {
+    MorphEngine engine = MorphEngine.get(false, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0);
+    assertSame(engine, MorphEngine.get(false, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0));
+    assertNotSame(engine, MorphEngine.get(true, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0));
+    assertNotSame(engine, MorphEngine.get(false, 10, 0));
+  }
+
+  public void testExactMatch() {
+    MorphEngine engine = MorphEngine.get(false, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0);
+    MorphEngine exact = MorphEngine.get(true, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0);
+    assertNotSame(engine.getMorphAnalyzer(), exact.getMorphAnalyzer());
+    assertEquals(engine.getMorphAnalyzer().analyze("자바로").get(0).getStem(),
+        exact.getMorphAnalyzer().analyze("자바로").get(0).getStem());
+  }
+
+  public void testNounMorphAnalyzer() {
+    MorphEngine engine = MorphEngine.get(false, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0);
+    MorphAnalyzer morph = engine.getMorphAnalyzer();
+    MorphAnalyzer nounMorph = engine.getNounMorphAnalyzer();
+    assertFalse(morph.isNounOnly());
+    assertTrue(nounMorph.isNounOnly());
+    
+    String words[] = { "학교에서", "사랑했다", "감기는", "도와주었다", "먹었다", "거봐라", "공항철도를", "그러다" };
+    for (String word : words) {
+      List<AnalysisOutput> all = morph.analyze(word);
+      List<AnalysisOutput> nouns = nounMorph.analyze(word);
+      assertEquals(word, nouns(all), nouns(nouns));
+    }
+    // a verb is still analyzed as a verb, not as an unknown noun
+    assertEquals(PatternConstants.POS_VERB, nounMorph.analyze("먹었다").get(0).getPos());
+  }
+  
+  public void testFastPath() {
+    MorphEngine engine = MorphEngine.get(false, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0);
+    MorphEngine fast = MorphEngine.get(false, true, WordSpaceAnalyzer.DEFAULT_MAX_STEPS, 0);
+    assertNotSame(engine, fast);
+    assertFalse(engine.getConfig().contains("fastPath"));
+    assertTrue(fast.getMorphAnalyzer().isFastPath());
+    assertTrue(fast.getNounMorphAnalyzer().isFastPath());
+    
+    MorphAnalyzer morph = engine.getMorphAnalyzer();
+    MorphAnalyzer fastMorph = fast.getMorphAnalyzer();
+    // two-syllable dictionary nouns, with or without a josa
+    String words[] = { "학교", "학교에서", "엔진을" };
+    for (String word : words) {
+      List<AnalysisOutput> outputs = fastMorph.analyze(word);
+      assertEquals(word, 1, outputs.size());
+      assertEquals(word, nouns(morph.analyze(word)), nouns(outputs));
+      assertEquals(word, outputs.get(0).getSource());
+    }
+    // the other words take the full analysis: verbs, compound nouns, nouns of three syllables or more
+    // (화랑도 is also 화랑+도), and words with another josa (가나 is also 가+나)
+    String others[] = { "사랑했다", "먹었다", "감기는", "공항철도를", "화랑도", "고지서같이", "가나" };
+    for (String word : others) {
+      assertEquals(word, nouns(morph.analyze(word)), nouns(fastMorph.analyze(word)));
+    }
+    
+    // a noun + '이' + eomi is not returned
+    assertEquals(Arrays.asList("사랑/" + PatternConstants.PTN_NJ + "/" + AnalysisOutput.SCORE_CORRECT + "/0"), 
+        nouns(fastMorph.analyze("사랑같인")));
+    assertEquals(2, nouns(morph.analyze("사랑같인")).size());
+  }
+  
+  public void testFastPathCounts() {
+    MorphAnalyzer fastMorph = new MorphAnalyzer(false, false, true);
+    MorphAnalyzer.setCountAnalyses(true);
+    try {
+      MorphAnalyzer.resetAnalysisCounts();
+      fastMorph.analyze("학교에서");
+      fastMorph.analyze("먹었다");
+      assertEquals(2, MorphAnalyzer.getAnalysisCount());
+      assertEquals(1, MorphAnalyzer.getFastPathCount());
+    } finally {
+      MorphAnalyzer.setCountAnalyses(false);
+      MorphAnalyzer.resetAnalysisCounts();
+    }
+  }
+  
+  private static List<String> nouns(List<AnalysisOutput> outputs) {
+    List<String> nouns = new ArrayList<String>();
+    for (AnalysisOutput o : outputs) {
+      if (o.getPos() != PatternConstants.POS_VERB) {
+        nouns.add(o.getStem() + "/" + o.getPatn() + "/" + o.getScore() + "/" + o.getCNounList().size());
+      }
+    }
+    return nouns;
+  }
+}
@@ -0,0 +1,53 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.lucene.util.LuceneTestCase;
+
+public class TestVerbRules extends LuceneTestCase {
+
+  public void testIrregularVerb() throws Exception {
+    assertRestored("걷", "어", "걸", "어");     // ㄷ 불규칙
+    assertRestored("긋", "어", "그", "어");     // ㅅ 불규칙
+    assertRestored("낫", "아", "나", "아");
+    assertRestored("길", "니", "기", "니");     // ㄹ 탈락
+    assertRestored("가르", "앉", "가라", "앉"); // 르 불규칙
+    assertRestored("가", "거라", "가", "거라"); // 거라 불규칙
+    assertNull(IrregularUtil.restoreIrregularVerb("학교", "에서"));
+    assertNull(IrregularUtil.restoreIrregularVerb("", "어"));
+    assertNull(IrregularUtil.restoreIrregularVerb("오", ""));
+  }
+
+  public void testVerbSuffix() throws Exception {
+    assertEquals(2, VerbUtil.endsWithVerbSuffix("공부하"));
+    assertEquals(2, VerbUtil.endsWithVerbSuffix("사랑되"));
+    assertEquals(-1, VerbUtil.endsWithVerbSuffix("깨끗"));
+    assertEquals(-1, VerbUtil.endsWithVerbSuffix("가"));
+
+    assertEquals(2, VerbUtil.endsWithXVerb("공부하"));
+    assertEquals(3, VerbUtil.endsWithXVerb("공부해주"));
+    assertEquals(-1, VerbUtil.endsWithXVerb("사랑되"));
+  }
+
+  private static void assertRestored(String stem, String end, String start, String eomi) {
+    String[] restored = IrregularUtil.restoreIrregularVerb(start, eomi);
+    assertNotNull(start + "+" + eomi, restored);
+    assertEquals(stem, restored[0]);
+    assertEquals(end, restored[1]);
+  }
+}
@@ -0,0 +1,128 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.LowerCaseFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.TypeAttribute;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.Version;
+
+/**
+ * Builds an {@link EojeolTable} with the most frequent eojeols of a corpus.
+ * <p>
+ * The corpus is tokenized like {@link KoreanAnalyzer} does before its {@link KoreanFilter},
+ * and the remaining arguments are the options of {@link KoreanFilterFactory}: the table
+ * can only be used by filters with the same options.
+ */
+public class EojeolTableBuilder {
+
+  public static void main(String args[]) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: EojeolTableBuilder corpusFile tableFile [size] [filterParam=value ...]");
+      System.exit(1);
+    }
+    File corpus = new File(args[0]);
+    File output = new File(args[1]);
+    int size = args.length > 2 ? Integer.parseInt(args[2]) : 100000;
+    Map<String,String> filterArgs = new HashMap<String,String>();
+    for (int i = 3; i < args.length; i++) {
+      String pair[] = args[i].split("=", 2);
+      if (pair.length != 2) {
+        throw new IllegalArgumentException("Invalid filter parameter: " + args[i]);
+      }
+      filterArgs.put(pair[0], pair[1]);
+    }
+
+    long start = System.nanoTime();
+    final Map<String,int[]> counts = countEojeols(corpus);
+    List<String> eojeols = new ArrayList<String>(counts.keySet());
+    Collections.sort(eojeols, new Comparator<String>() {
+      @Override
+      public int compare(String a, String b) {
+        int cmp = counts.get(b)[0] - counts.get(a)[0];
+        return cmp != 0 ? cmp : a.compareTo(b);
+      }
+    });
+    long total = 0, covered = 0;
+    for (int i = 0; i < eojeols.size(); i++) {
+      int count = counts.get(eojeols.get(i))[0];
+      total += count;
+      if (i < size) {
+        covered += count;
+      }
+    }
+    if (eojeols.size() > size) {
+      eojeols = eojeols.subList(0, size);
+    }
+
+    EojeolTable table = EojeolTable.build(eojeols, filterArgs);
+    OutputStream stream = new BufferedOutputStream(new FileOutputStream(output));
+    try {
+      table.write(stream);
+    } finally {
+      IOUtils.close(stream);
+    }
+    System.out.println("config:   " + table.getConfig());
+    System.out.println("eojeols:  " + eojeols.size() + " of " + counts.size() + " distinct");
+    System.out.println("coverage: " + (total == 0 ? 0 : covered * 100 / total) + "% of " + total + " eojeols in the corpus");
+    System.out.println("size:     " + output.length() + " bytes");
+    System.out.println("time:     " + (System.nanoTime() - start) / 1000000 + " ms");
+  }
+
+  /** counts the korean tokens of the corpus, as the filter would see them */
+  static Map<String,int[]> countEojeols(File corpus) throws Exception {
+    Map<String,int[]> counts = new HashMap<String,int[]>();
+    String koreanType = KoreanTokenizer.TOKEN_TYPES[KoreanTokenizer.KOREAN];
+    BufferedReader reader = new BufferedReader(IOUtils.getDecodingReader(corpus, IOUtils.CHARSET_UTF_8));
+    try {
+      TokenStream ts = new LowerCaseFilter(Version.LUCENE_47, new KoreanTokenizer(reader));
+      CharTermAttribute termAtt = ts.addAttribute(CharTermAttribute.class);
+      TypeAttribute typeAtt = ts.addAttribute(TypeAttribute.class);
+      ts.reset();
+      while (ts.incrementToken()) {
+        if (koreanType.equals(typeAtt.type())) {
+          String term = termAtt.toString();
+          int count[] = counts.get(term);
+          if (count == null) {
+            counts.put(term, count = new int[1]);
+          }
+          count[0]++;
+        }
+      }
+      ts.end();
+      ts.close();
+    } finally {
+      IOUtils.closeWhileHandlingException(reader);
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,67 @@
+package org.apache.lucene.analysis.ko;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+
+import org.apache.lucene.analysis.Tokenizer;
+
+/**
+ * Compares the throughput of {@link KoreanTokenizer} (JFlex) and
+ * {@link SimpleKoreanTokenizer} (table-driven) over a text file.
+ */
+public class TokenizerBenchmark {
+
+  public static void main(String args[]) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: TokenizerBenchmark textFile [rounds]");
+      System.exit(1);
+    }
+    String text = new String(Files.readAllBytes(new File(args[0]).toPath()), StandardCharsets.UTF_8);
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    System.out.println(String.format(Locale.ROOT, "%-24s %10s %10s %10s",
+        "tokenizer (" + text.length() + " chars)", "tokens", "ms", "Mchars/s"));
+    run("KoreanTokenizer", new KoreanTokenizer(new StringReader("")), text, rounds);
+    run("SimpleKoreanTokenizer", new SimpleKoreanTokenizer(new StringReader("")), text, rounds);
+  }
+
+  /** tokenizes the text for a number of rounds, and prints the best time */
+  static void run(String name, Tokenizer tokenizer, String text, int rounds) throws Exception {
+    long best = Long.MAX_VALUE;
+    int tokens = 0;
+    for (int round = 0; round < rounds; round++) {
+      long start = System.nanoTime();
+      tokenizer.setReader(new StringReader(text));
+      tokenizer.reset();
+      tokens = 0;
+      while (tokenizer.incrementToken()) {
+        tokens++;
+      }
+      tokenizer.end();
+      tokenizer.close();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.println(String.format(Locale.ROOT, "%-24s %10d %10.1f %10.1f",
+        name, tokens, best / 1e6, text.length() * 1e3 / best));
+  }
+}
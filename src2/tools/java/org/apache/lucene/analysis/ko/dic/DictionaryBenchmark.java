@@ -0,0 +1,109 @@
+package org.apache.lucene.analysis.ko.dic;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the throughput of dictionary lookups with an increasing number of threads,
+ * over the words (and their prefixes) of a text file.
+ * <p>
+ * Lookups are independent, so the throughput should grow with the number of threads
+ * up to the number of cores.
+ */
+public class DictionaryBenchmark {
+
+  public static void main(String args[]) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: DictionaryBenchmark textFile [maxThreads] [rounds]");
+      System.exit(1);
+    }
+    String text = new String(Files.readAllBytes(new File(args[0]).toPath()), StandardCharsets.UTF_8);
+    int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+    final List<String> words = new ArrayList<String>();
+    for (String word : text.split("[^\\uAC00-\\uD7AF]+")) {
+      if (word.length() > 0) {
+        words.add(word);
+      }
+    }
+
+    System.out.println(String.format(Locale.ROOT, "%-8s %12s %10s %14s",
+        "threads", "lookups", "ms", "lookups/s"));
+    run(1, words, rounds); // warmup
+    for (int threads = 1; threads <= maxThreads; threads *= 2) {
+      run(threads, words, rounds);
+    }
+  }
+
+  /** each thread looks up all the words: prints the best time */
+  static void run(int threads, final List<String> words, int rounds) throws Exception {
+    final HangulDictionary dictionary = DictionaryUtil.getDictionary();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      long best = Long.MAX_VALUE;
+      long lookups = 0;
+      for (int round = 0; round < rounds; round++) {
+        List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+        for (int i = 0; i < threads; i++) {
+          tasks.add(new Callable<Long>() {
+            @Override
+            public Long call() {
+              long count = 0, found = 0;
+              for (String word : words) {
+                for (int end = 1; end <= word.length(); end++) {
+                  CharSequence prefix = word.subSequence(0, end);
+                  if (dictionary.lookup(prefix) >= 0) {
+                    found++;
+                  }
+                  if (dictionary.hasPrefix(prefix)) {
+                    found++;
+                  }
+                  count += 2;
+                }
+                found += dictionary.longestMatch(word, WordEntry.NOUN);
+                count++;
+              }
+              return found >= 0 ? count : -1;
+            }
+          });
+        }
+        long start = System.nanoTime();
+        lookups = 0;
+        for (Future<Long> future : executor.invokeAll(tasks)) {
+          lookups += future.get();
+        }
+        best = Math.min(best, System.nanoTime() - start);
+      }
+      System.out.println(String.format(Locale.ROOT, "%-8d %12d %10.1f %14.0f",
+          threads, lookups, best / 1e6, lookups * 1e9 / best));
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
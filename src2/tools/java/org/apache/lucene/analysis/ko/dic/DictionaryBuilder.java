@@ -17,7 +17,6 @@ package org.apache.lucene.analysis.ko.dic;
  * limitations under the License.
  */
 
-import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
@@ -26,16 +25,26 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.store.DataOutput;
 import org.apache.lucene.store.OutputStreamDataOutput;
+import org.apache.lucene.store.RAMOutputStream;
 import org.apache.lucene.util.ArrayUtil;
 import org.apache.lucene.util.FixedBitSet;
 import org.apache.lucene.util.IOUtils;
@@ -43,38 +52,208 @@ import org.apache.lucene.util.IntsRef;
 import org.apache.lucene.util.fst.Builder;
 import org.apache.lucene.util.fst.FST;
 import org.apache.lucene.util.fst.Outputs;
+import org.apache.lucene.util.fst.PositiveIntOutputs;
 import org.apache.lucene.util.packed.MonotonicBlockPackedWriter;
 import org.apache.lucene.util.packed.PackedInts;
 
+/**
+ * Builds the binary dictionary resources from the source files in {@code data/}.
+ * <p>
+ * Usage: {@code DictionaryBuilder inputDir outputDir [-packed] [-threads N]}
+ * <p>
+ * Source files are parsed in parallel and the independent artifacts are built
+ * concurrently. Word classes are still assigned in file order, so the output
+ * is identical regardless of the number of threads. When done, a report with
+ * the size and build time of each artifact and a lookup benchmark over the
+ * new word dictionary is printed.
+ */
 public class DictionaryBuilder {
   public static void main(String args[]) throws Exception {
-    String FILES_AS_IS[] = { 
-      DictionaryResources.FILE_EOMI,
-      DictionaryResources.FILE_JOSA,
-      DictionaryResources.FILE_UNCOMPOUNDS
-    };
-    
+    if (args.length < 2) {
+      System.err.println("Usage: DictionaryBuilder inputDir outputDir [-packed] [-threads N]");
+      System.exit(1);
+    }
     File inputDir = new File(args[0]);
     File outputDir = new File(args[1]);
-    for (String file : FILES_AS_IS) {
-      File in = new File(inputDir, file);
-      File out = new File(outputDir, file);
-      copyAsIs(in, out);
-    }
-    buildHanjaMap(inputDir, outputDir);
-    buildSyllableDict(inputDir, outputDir);
-    buildHangulDict(inputDir, outputDir);
+    boolean packed = false;
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int i = 2; i < args.length; i++) {
+      if ("-packed".equals(args[i])) {
+        packed = true;
+      } else if ("-threads".equals(args[i])) {
+        threads = Integer.parseInt(args[++i]);
+      } else {
+        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+      }
+    }
+    
+    long start = System.nanoTime();
+    List<Artifact> report = build(inputDir, outputDir, packed, Math.max(1, threads));
+    long elapsed = System.nanoTime() - start;
+    
+    printReport(report, elapsed);
+    benchmarkLookups(new File(outputDir, DictionaryResources.FILE_WORDS_DAT), new File(inputDir, "dictionary.dic"));
+  }
+  
+  static final String FILES_AS_IS[] = { 
+    DictionaryResources.FILE_EOMI,
+    DictionaryResources.FILE_JOSA,
+    DictionaryResources.FILE_UNCOMPOUNDS
+  };
+  
+  /** builds all resources, returning size and build time of each file in a fixed order */
+  static List<Artifact> build(final File inputDir, final File outputDir, final boolean packed, int threads) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      // parsing of the (large) word lists goes first, so the fst can be built as early as possible
+      final Future<List<Entry>> dictionary = executor.submit(parser(new File(inputDir, "dictionary.dic"), false));
+      final Future<List<Entry>> extension = executor.submit(parser(new File(inputDir, "extension.dic"), false));
+      final Future<List<Entry>> compounds = executor.submit(parser(new File(inputDir, "compounds.dic"), true));
+      
+      List<Future<Artifact>> artifacts = new ArrayList<>();
+      for (final String file : FILES_AS_IS) {
+        artifacts.add(executor.submit(new Callable<Artifact>() {
+          @Override
+          public Artifact call() throws Exception {
+            long start = System.nanoTime();
+            File out = new File(outputDir, file);
+            copyAsIs(new File(inputDir, file), out);
+            return new Artifact(out, System.nanoTime() - start);
+          }
+        }));
+      }
+      artifacts.add(executor.submit(new Callable<Artifact>() {
+        @Override
+        public Artifact call() throws Exception {
+          long start = System.nanoTime();
+          buildHanjaMap(inputDir, outputDir);
+          // the hanja map is two files: report the index with the time of both
+          return new Artifact(new File(outputDir, DictionaryResources.FILE_HANJA_IDX), System.nanoTime() - start);
+        }
+      }));
+      artifacts.add(executor.submit(new Callable<Artifact>() {
+        @Override
+        public Artifact call() throws Exception {
+          long start = System.nanoTime();
+          buildSyllableDict(inputDir, outputDir);
+          return new Artifact(new File(outputDir, DictionaryResources.FILE_SYLLABLE_DAT), System.nanoTime() - start);
+        }
+      }));
+      
+      // the fst is built on this thread: it only depends on the parsers, which never wait on anything.
+      long start = System.nanoTime();
+      buildHangulDict(get(dictionary), get(extension), get(compounds), outputDir, packed);
+      Artifact words = new Artifact(new File(outputDir, DictionaryResources.FILE_WORDS_DAT), System.nanoTime() - start);
+      
+      List<Artifact> report = new ArrayList<>();
+      for (Future<Artifact> f : artifacts) {
+        report.add(get(f));
+      }
+      report.add(new Artifact(new File(outputDir, DictionaryResources.FILE_HANJA_DAT), 0));
+      report.add(words);
+      return report;
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+  
+  private static <T> T get(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      } else {
+        throw new RuntimeException(cause);
+      }
+    }
+  }
+  
+  /** size and build time of a single output file */
+  static class Artifact {
+    final File file;
+    final long nanos;
+    
+    Artifact(File file, long nanos) {
+      this.file = file;
+      this.nanos = nanos;
+    }
+  }
+  
+  static void printReport(List<Artifact> report, long elapsed) {
+    long total = 0;
+    System.out.println();
+    System.out.println(String.format(Locale.ROOT, "%-20s %12s %10s", "artifact", "bytes", "ms"));
+    for (Artifact a : report) {
+      total += a.file.length();
+      System.out.println(String.format(Locale.ROOT, "%-20s %12d %10d", a.file.getName(), a.file.length(), TimeUnit.NANOSECONDS.toMillis(a.nanos)));
+    }
+    System.out.println(String.format(Locale.ROOT, "%-20s %12d %10d", "total", total, TimeUnit.NANOSECONDS.toMillis(elapsed)));
+  }
+  
+  /** 
+   * loads the dictionary that was just written and times lookups
+   * over every word of the input dictionary (best of several rounds)
+   */
+  static void benchmarkLookups(File wordsDat, File input) throws Exception {
+    final int ROUNDS = 10;
+    List<String> words = new ArrayList<>();
+    for (Entry e : parser(input, false).call()) {
+      words.add(e.word);
+    }
+    
+    long start = System.nanoTime();
+    HangulDictionary dictionary;
+    InputStream stream = new FileInputStream(wordsDat);
+    try {
+      dictionary = HangulDictionary.read(stream);
+    } finally {
+      stream.close();
+    }
+    long load = System.nanoTime() - start;
+    
+    long bestLookup = Long.MAX_VALUE;
+    long bestPrefix = Long.MAX_VALUE;
+    long bestLongest = Long.MAX_VALUE;
+    int hits = 0;
+    for (int round = 0; round < ROUNDS; round++) {
+      hits = 0;
+      start = System.nanoTime();
+      for (String word : words) {
+        if (dictionary.lookup(word) >= 0) {
+          hits++;
+        }
+      }
+      bestLookup = Math.min(bestLookup, System.nanoTime() - start);
+      
+      start = System.nanoTime();
+      for (String word : words) {
+        dictionary.hasPrefix(word);
+      }
+      bestPrefix = Math.min(bestPrefix, System.nanoTime() - start);
+      
+      start = System.nanoTime();
+      for (String word : words) {
+        dictionary.longestMatch(word, WordEntry.NOUN);
+      }
+      bestLongest = Math.min(bestLongest, System.nanoTime() - start);
+    }
+    if (hits != words.size()) {
+      throw new IllegalStateException("only " + hits + " of " + words.size() + " words were found");
+    }
+    
+    System.out.println();
+    System.out.println(String.format(Locale.ROOT, "load %s: %.1f ms", wordsDat.getName(), load / 1e6));
+    System.out.println(String.format(Locale.ROOT, "%-20s %10s", "lookup (" + words.size() + " words)", "ns/op"));
+    System.out.println(String.format(Locale.ROOT, "%-20s %10.1f", "lookup", (double) bestLookup / words.size()));
+    System.out.println(String.format(Locale.ROOT, "%-20s %10.1f", "hasPrefix", (double) bestPrefix / words.size()));
+    System.out.println(String.format(Locale.ROOT, "%-20s %10.1f", "longestMatch", (double) bestLongest / words.size()));
   }
   
   static void copyAsIs(File in, File out) throws Exception {
-    InputStream r = new BufferedInputStream(new FileInputStream(in));
-    OutputStream w = new BufferedOutputStream(new FileOutputStream(out));
-    int c;
-    while ((c = r.read()) != -1) {
-      w.write(c);
-    }
-    r.close();
-    w.close();
+    Files.copy(in.toPath(), out.toPath(), StandardCopyOption.REPLACE_EXISTING);
   }
   
   static void buildHanjaMap(File inputDir, File outputDir) throws Exception {
@@ -222,44 +401,58 @@ public class DictionaryBuilder {
   }
   
   
+  /** a parsed line of one of the word lists */
+  static class Entry {
+    final String word;
+    final Output output;
+    
+    Entry(String word, Output output) {
+      this.word = word;
+      this.output = output;
+    }
+  }
+  
+  /** parses a word list (or compound list) into entries, in file order */
+  static Callable<List<Entry>> parser(final File input, final boolean compounds) {
+    return new Callable<List<Entry>>() {
+      @Override
+      public List<Entry> call() throws Exception {
+        List<Entry> entries = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(IOUtils.getDecodingReader(input, IOUtils.CHARSET_UTF_8));
+        try {
+          String line = null;
+          while ((line = reader.readLine()) != null) {
+            if (!line.startsWith("!") && !line.startsWith("\uFEFF")) {
+              entries.add(compounds ? processCompound(line) : processLine(line));
+            }
+          }
+        } finally {
+          reader.close();
+        }
+        return entries;
+      }
+    };
+  }
+  
   /** 
    * makes FST (currently byte2 syllables) mapping to "word class"
    * each word has features + compound data, but many of them share the
    * same set of features, and have simple compound splits in the same place.
+   * <p>
+   * word classes are numbered in order of first appearance across the lists,
+   * so this must be called with the lists in a fixed order.
    */
-  static void buildHangulDict(File inputDir, File outputDir) throws Exception {
+  static void buildHangulDict(List<Entry> dictionary, List<Entry> extension, List<Entry> compounds, File outputDir, boolean packed) throws Exception {
     TreeMap<String,Integer> sorted = new TreeMap<String,Integer>();
     Map<Output,Integer> classes = new LinkedHashMap<>();
-    File input = new File(inputDir, "dictionary.dic");
-    BufferedReader reader = new BufferedReader(IOUtils.getDecodingReader(input, IOUtils.CHARSET_UTF_8));
-    String line = null;
-    while ((line = reader.readLine()) != null) {
-      if (!line.startsWith("!") && !line.startsWith("\uFEFF")) {
-        processLine(line, sorted, classes);
-      }
-    }
-    reader.close();
-    input = new File(inputDir, "extension.dic");
-    reader = new BufferedReader(IOUtils.getDecodingReader(input, IOUtils.CHARSET_UTF_8));
-    while ((line = reader.readLine()) != null) {
-      if (!line.startsWith("!") && !line.startsWith("\uFEFF")) {
-        processLine(line, sorted, classes);
-      }
-    }
-    reader.close();
-    input = new File(inputDir, "compounds.dic");
-    reader = new BufferedReader(IOUtils.getDecodingReader(input, IOUtils.CHARSET_UTF_8));
-    while ((line = reader.readLine()) != null) {
-      if (!line.startsWith("!") && !line.startsWith("\uFEFF")) {
-        processCompound(line, sorted, classes);
-      }
-    }
-    reader.close();
+    addEntries(dictionary, sorted, classes);
+    addEntries(extension, sorted, classes);
+    addEntries(compounds, sorted, classes);
     System.out.println("#words: " + sorted.size());
     System.out.println("#classes: " + classes.size());
-    Outputs<Byte> fstOutput = ByteOutputs.getSingleton();
+    Outputs<Long> fstOutput = PositiveIntOutputs.getSingleton();
     // why does packed=false give a smaller fst?!?!
-    Builder<Byte> builder = new Builder<Byte>(FST.INPUT_TYPE.BYTE2, 0, 0, true, true, Integer.MAX_VALUE, fstOutput, null, false, PackedInts.DEFAULT, true, 15);
+    Builder<Long> builder = new Builder<Long>(FST.INPUT_TYPE.BYTE2, 0, 0, true, true, Integer.MAX_VALUE, fstOutput, null, packed, PackedInts.DEFAULT, true, 15);
     IntsRef scratch = new IntsRef();
     for (Map.Entry<String,Integer> e : sorted.entrySet()) {
       String token = e.getKey();
@@ -268,39 +461,48 @@ public class DictionaryBuilder {
       for (int i = 0; i < token.length(); i++) {
         scratch.ints[i] = (int) token.charAt(i);
       }
-      int v = e.getValue();
-      assert v >= 0 && v < 128;
-      builder.add(scratch, (byte)v);
+      builder.add(scratch, (long) e.getValue());
     }
-    FST<Byte> fst = builder.finish();
+    FST<Long> fst = builder.finish();
     System.out.println("FST size: " + fst.sizeInBytes());
     OutputStream stream = new BufferedOutputStream(new FileOutputStream(new File(outputDir, DictionaryResources.FILE_WORDS_DAT)));
     DataOutput out = new OutputStreamDataOutput(stream);
     CodecUtil.writeHeader(out, DictionaryResources.FILE_WORDS_DAT, DictionaryResources.DATA_VERSION);
-    out.writeByte((byte)classes.size());
+    // class records are variable length: write all the lengths up front, so they can be located
+    RAMOutputStream records = new RAMOutputStream();
+    out.writeVInt(classes.size());
     for (Output o : classes.keySet()) {
-      o.write(out);
+      long start = records.getFilePointer();
+      o.write(records);
+      out.writeVInt((int) (records.getFilePointer() - start));
     }
+    records.writeTo(out);
     fst.save(out);
     stream.close();
   }
   
-  static void processLine(String line, TreeMap<String,Integer> sorted, Map<Output,Integer> classes) {
+  static void addEntries(List<Entry> entries, TreeMap<String,Integer> sorted, Map<Output,Integer> classes) {
+    for (Entry e : entries) {
+      Integer ord = classes.get(e.output);
+      if (ord == null) {
+        ord = classes.size();
+        classes.put(e.output, ord);
+      }
+      sorted.put(e.word, ord);
+    }
+  }
+  
+  static Entry processLine(String line) {
     String[] infos = line.split("[,]+");
     assert infos.length == 2;
     assert infos[1].length() == 10;
     Output output = new Output();
     output.flags = (char) parseFlags(infos[1]);
     output.splits = Collections.emptyList();
-    Integer ord = classes.get(output);
-    if (ord == null) {
-      ord = classes.size();
-      classes.put(output, ord);
-    }
-    sorted.put(infos[0], ord);
+    return new Entry(infos[0], output);
   }
   
-  static void processCompound(String line, TreeMap<String,Integer> sorted, Map<Output,Integer> classes) {
+  static Entry processCompound(String line) {
     String[] infos = line.split("[:]+");
     assert infos.length == 3;
     assert infos[2].length() == 4;
@@ -314,12 +516,7 @@ public class DictionaryBuilder {
       output.splits = parseSplits(infos[1]);
     }
     
-    Integer ord = classes.get(output);
-    if (ord == null) {
-      ord = classes.size();
-      classes.put(output, ord);
-    }
-    sorted.put(infos[0], ord);
+    return new Entry(infos[0], output);
   }
   
   static List<Integer> parseSplits(String line) {
@@ -385,27 +582,18 @@ public class DictionaryBuilder {
       return true;
     }
 
-    static final int MAX_SPLITS = HangulDictionary.RECORD_SIZE - 3;
-    
+    /** writes the class record, see {@link HangulDictionary} for the format */
     public void write(DataOutput output) throws IOException {
       output.writeShort((short)flags);
       if (decomp != null) {
-        assert decomp.length() <= MAX_SPLITS/2;
-        output.writeByte((byte) decomp.length());
+        output.writeVInt(decomp.length());
         for (int i = 0; i < decomp.length(); i++) {
-          output.writeShort((short) decomp.charAt(i));
-        }
-        for (int i = decomp.length(); i < MAX_SPLITS/2; i++) {
-          output.writeShort((short)0);
+          output.writeVInt(decomp.charAt(i));
         }
       } else {
-        assert splits.size() <= MAX_SPLITS;
-        output.writeByte((byte) splits.size());
+        output.writeVInt(splits.size());
         for (int i : splits) {
-          output.writeByte((byte)i);
-        }
-        for (int i = splits.size(); i < MAX_SPLITS; i++) {
-          output.writeByte((byte)0);
+          output.writeVInt(i);
         }
       }
     }
@@ -0,0 +1,146 @@
+package org.apache.lucene.analysis.ko.morph;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Measures the verb rules of {@link IrregularUtil} and {@link VerbUtil} by themselves,
+ * without the rest of the morphological analysis.
+ * <p>
+ * Every distinct word of a text file is split at every position into a stem and an eomi
+ * (as the analyzer tries them), and the irregular verb restoration and the verb suffix
+ * and auxiliary verb lookups are run on them. The best time of the rounds is printed,
+ * with the bytes allocated per call when the JVM can measure them.
+ */
+public class VerbRuleBenchmark {
+
+  public static void main(String args[]) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: VerbRuleBenchmark textFile [rounds]");
+      System.exit(1);
+    }
+    String text = new String(Files.readAllBytes(new File(args[0]).toPath()), StandardCharsets.UTF_8);
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    Set<String> words = new LinkedHashSet<String>();
+    for (String word : text.split("[^가-힣]+")) {
+      if (word.length() > 0) {
+        words.add(word);
+      }
+    }
+    List<String> stems = new ArrayList<String>();
+    List<String> ends = new ArrayList<String>();
+    for (String word : words) {
+      for (int i = 1; i < word.length(); i++) {
+        stems.add(word.substring(0, i));
+        ends.add(word.substring(i));
+      }
+    }
+    final String stem[] = stems.toArray(new String[stems.size()]);
+    final String end[] = ends.toArray(new String[ends.size()]);
+    if (stem.length == 0) {
+      System.err.println("No hangul words in " + args[0]);
+      System.exit(1);
+    }
+
+    System.out.println(String.format(Locale.ROOT, "%-24s %10s %10s %10s %10s",
+        "rule (" + stem.length + " splits)", "found", "ms", "ns/call", "bytes/call"));
+    run("restoreIrregularVerb", stem.length, rounds, new Task() {
+      @Override
+      int run() {
+        int found = 0;
+        for (int i = 0; i < stem.length; i++) {
+          if (IrregularUtil.restoreIrregularVerb(stem[i], end[i]) != null) {
+            found++;
+          }
+        }
+        return found;
+      }
+    });
+    run("endsWithVerbSuffix", stem.length, rounds, new Task() {
+      @Override
+      int run() {
+        int found = 0;
+        for (int i = 0; i < stem.length; i++) {
+          if (VerbUtil.endsWithVerbSuffix(stem[i]) >= 0) {
+            found++;
+          }
+        }
+        return found;
+      }
+    });
+    run("endsWithXVerb", stem.length, rounds, new Task() {
+      @Override
+      int run() {
+        int found = 0;
+        for (int i = 0; i < stem.length; i++) {
+          if (VerbUtil.endsWithXVerb(stem[i]) >= 0) {
+            found++;
+          }
+        }
+        return found;
+      }
+    });
+  }
+
+  private static abstract class Task {
+    /** runs all the calls once, and returns the number of matches */
+    abstract int run();
+  }
+
+  /** runs the task for a number of rounds, and prints the best time */
+  static void run(String name, int calls, int rounds, Task task) {
+    long best = Long.MAX_VALUE;
+    long bytes = -1;
+    int found = 0;
+    for (int round = 0; round < rounds; round++) {
+      long allocated = allocatedBytes();
+      long start = System.nanoTime();
+      found = task.run();
+      best = Math.min(best, System.nanoTime() - start);
+      if (allocated >= 0) {
+        bytes = allocatedBytes() - allocated;
+      }
+    }
+    System.out.println(String.format(Locale.ROOT, "%-24s %10d %10.1f %10.1f %10s",
+        name, found, best / 1e6, (double) best / calls,
+        bytes < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f", (double) bytes / calls)));
+  }
+
+  /** bytes allocated by this thread so far, or -1 if the JVM does not measure them */
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) bean;
+      if (sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+        return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+    }
+    return -1;
+  }
+}